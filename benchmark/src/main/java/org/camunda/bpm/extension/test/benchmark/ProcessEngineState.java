@@ -0,0 +1,77 @@
+package org.camunda.bpm.extension.test.benchmark;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.examples.TestApp;
+import org.camunda.bpm.extension.test.CamundaSpringBootTestApp;
+import org.camunda.bpm.extension.test.engine.JobExecutionLatch;
+import org.camunda.bpm.extension.test.process.scenario.ProcessGiven;
+import org.camunda.bpm.extension.test.process.scenario.ProcessThen;
+import org.camunda.bpm.extension.test.process.scenario.ProcessWhen;
+import org.camunda.bpm.extension.test.spring.configuration.ScenarioConfiguration;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.tngtech.jgiven.impl.Scenario;
+import com.tngtech.jgiven.integration.spring.JGivenSpringConfiguration;
+import com.tngtech.jgiven.integration.spring.SpringStageCreator;
+import com.tngtech.jgiven.report.model.ReportModel;
+
+/**
+ * The process engine of the examples ({@code Test.bpmn}), booted once per benchmark trial, the same way as for
+ * {@code AbstractSpringTest}.
+ */
+@State(Scope.Benchmark)
+public class ProcessEngineState {
+
+  private ConfigurableApplicationContext context;
+
+  @Setup(Level.Trial)
+  public void start() {
+    context = new SpringApplicationBuilder(
+        CamundaSpringBootTestApp.class,
+        ScenarioConfiguration.class,
+        JGivenSpringConfiguration.class,
+        TestApp.class)
+        .web(WebApplicationType.NONE)
+        // history assertions count over all scenarios of the trial otherwise
+        .properties("camunda.bpm.test.cleanup.delete-history=true")
+        // measured without the tenant isolation of the examples
+        .properties("camunda.bpm.test.tenant-isolation=false")
+        .run();
+  }
+
+  @TearDown(Level.Trial)
+  public void stop() {
+    context.close();
+  }
+
+  public WorkflowTestHelper getWorkflowHelper() {
+    return context.getBean(WorkflowTestHelper.class);
+  }
+
+  public void waitForJobExecutorToProcessAllJobs() {
+    context.getBean(JobExecutionLatch.class).waitForJobExecutorToProcessAllJobs(
+        (ProcessEngineConfigurationImpl) getWorkflowHelper().getProcessEngineConfiguration(), 60 * 1000L, 25L);
+  }
+
+  /**
+   * Starts a scenario outside of JUnit, its stages are the Spring beans used by the tests.
+   */
+  @SuppressWarnings("rawtypes")
+  public Scenario<ProcessGiven, ProcessWhen, ProcessThen> startScenario(String description) {
+    Scenario<ProcessGiven, ProcessWhen, ProcessThen> scenario =
+        Scenario.create(ProcessGiven.class, ProcessWhen.class, ProcessThen.class);
+    scenario.setModel(new ReportModel());
+    scenario.setStageCreator(context.getBean(SpringStageCreator.class));
+    scenario.startScenario(description);
+    return scenario;
+  }
+
+}
@@ -0,0 +1,129 @@
+package org.camunda.bpm.extension.test.benchmark;
+
+import static org.camunda.bpm.extension.test.benchmark.WorkflowTestHelperBenchmark.BUSINESS_KEY;
+import static org.camunda.bpm.extension.test.benchmark.WorkflowTestHelperBenchmark.MESSAGE;
+import static org.camunda.bpm.extension.test.benchmark.WorkflowTestHelperBenchmark.MODEL;
+import static org.camunda.bpm.extension.test.benchmark.WorkflowTestHelperBenchmark.USER_TASK;
+
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.extension.test.process.scenario.ProcessGiven;
+import org.camunda.bpm.extension.test.process.scenario.ProcessThen;
+import org.camunda.bpm.extension.test.process.scenario.ProcessWhen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.tngtech.jgiven.impl.Scenario;
+
+/**
+ * Cost of the given/when/then steps of {@code ProcessTest}, including the JGiven stage interception. Every
+ * invocation runs in its own scenario, the cleanup of the scenario is not measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@SuppressWarnings({ "rawtypes", "unchecked" })
+public class ProcessStageBenchmark {
+
+  /**
+   * A started scenario with a process engine and process model given.
+   */
+  @State(Scope.Thread)
+  public static class GivenScenario {
+
+    Scenario<ProcessGiven, ProcessWhen, ProcessThen> scenario;
+
+    @Setup(Level.Invocation)
+    public void setUp(ProcessEngineState engine) {
+      prepare(engine);
+    }
+
+    // not annotated in subclasses, JMH would run every level of an overridden setup
+    protected void prepare(ProcessEngineState engine) {
+      scenario = engine.startScenario("benchmark");
+      scenario.given()
+          .a_process_engine()
+          .a_business_key(BUSINESS_KEY)
+          .a_process_model(MODEL);
+    }
+
+    @TearDown(Level.Invocation)
+    public void finishScenario() throws Throwable {
+      scenario.finished();
+    }
+
+  }
+
+  /**
+   * A scenario with a process waiting in the user task.
+   */
+  @State(Scope.Thread)
+  public static class ActiveScenario extends GivenScenario {
+
+    @Override
+    protected void prepare(ProcessEngineState engine) {
+      super.prepare(engine);
+      scenario.when()
+          .create_a_process_by_message(MESSAGE);
+    }
+
+  }
+
+  /**
+   * A scenario with a completed process.
+   */
+  @State(Scope.Thread)
+  public static class CompletedScenario extends ActiveScenario {
+
+    @Override
+    protected void prepare(ProcessEngineState engine) {
+      super.prepare(engine);
+      scenario.when()
+          .complete_task(USER_TASK);
+    }
+
+  }
+
+  @Benchmark
+  public Object when_create_a_process_by_message(GivenScenario given) {
+    return given.scenario.when()
+        .create_a_process_by_message(MESSAGE);
+  }
+
+  @Benchmark
+  public Object then_process_runtime(ActiveScenario active) {
+    return active.scenario.then()
+        .active_processes(1)
+        .process_runtime()
+        .contains(MODEL)
+        .active_task(USER_TASK)
+        .with_task_name("Review Results");
+  }
+
+  @Benchmark
+  public Object when_complete_task(ActiveScenario active) {
+    return active.scenario.when()
+        .complete_task(USER_TASK);
+  }
+
+  @Benchmark
+  public Object then_history(CompletedScenario completed) {
+    return completed.scenario.then()
+        .no_active_processes()
+        .completed_tasks(1, USER_TASK)
+        .withActivities("Start_TestProcess", "Process Test Data", USER_TASK);
+  }
+
+}
@@ -0,0 +1,110 @@
+package org.camunda.bpm.extension.test.benchmark;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the {@link WorkflowTestHelper} calls behind the steps of {@code ProcessTest}, without the JGiven stages
+ * on top.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WorkflowTestHelperBenchmark {
+
+  static final String MESSAGE = "TestProcess";
+  static final String BUSINESS_KEY = "12345";
+  static final String USER_TASK = "UserTask_ReviewResults";
+  static final Set<String> ACTIVITIES = Set.of("Start_TestProcess", "Process Test Data", USER_TASK);
+  static final Map<String, Object> MODEL = Map.of("message", "Hello World!");
+
+  /**
+   * A process waiting in the user task, created per invocation.
+   */
+  @State(Scope.Thread)
+  public static class ActiveProcess {
+
+    String processId;
+    String taskId;
+
+    @Setup(Level.Invocation)
+    public void setUp(ProcessEngineState engine) {
+      prepare(engine);
+    }
+
+    // not annotated in subclasses, JMH would run every level of an overridden setup
+    protected void prepare(ProcessEngineState engine) {
+      WorkflowTestHelper workflowHelper = engine.getWorkflowHelper();
+      processId = workflowHelper.sendStartMessage(MESSAGE, BUSINESS_KEY, MODEL).getProcessInstanceId();
+      engine.waitForJobExecutorToProcessAllJobs();
+      taskId = workflowHelper.getTasksByKey(processId, USER_TASK).get(0).getId();
+    }
+
+  }
+
+  /**
+   * A completed process, created per invocation.
+   */
+  @State(Scope.Thread)
+  public static class CompletedProcess extends ActiveProcess {
+
+    @Override
+    protected void prepare(ProcessEngineState engine) {
+      super.prepare(engine);
+      engine.getWorkflowHelper().completeTask(taskId);
+      engine.waitForJobExecutorToProcessAllJobs();
+    }
+
+  }
+
+  @TearDown(Level.Iteration)
+  public void deleteProcesses(ProcessEngineState engine) {
+    engine.getWorkflowHelper().deleteProcesses();
+  }
+
+  @Benchmark
+  public String start_by_message(ProcessEngineState engine) {
+    String processId = engine.getWorkflowHelper()
+        .sendStartMessage(MESSAGE, BUSINESS_KEY, MODEL)
+        .getProcessInstanceId();
+    engine.waitForJobExecutorToProcessAllJobs();
+    return processId;
+  }
+
+  @Benchmark
+  public void complete_task(ProcessEngineState engine, ActiveProcess process) {
+    engine.getWorkflowHelper().completeTask(process.taskId);
+    engine.waitForJobExecutorToProcessAllJobs();
+  }
+
+  @Benchmark
+  public Map<String, Object> process_variables(ProcessEngineState engine, ActiveProcess process) {
+    return engine.getWorkflowHelper().getProcessVariables(process.processId);
+  }
+
+  @Benchmark
+  public boolean history(ProcessEngineState engine, CompletedProcess process) {
+    WorkflowTestHelper workflowHelper = engine.getWorkflowHelper();
+    return !workflowHelper.getHistoryTasks(process.processId, USER_TASK, Map.of()).isEmpty()
+        && workflowHelper.hasActivities(process.processId, ACTIVITIES);
+  }
+
+}
@@ -0,0 +1,44 @@
+package org.camunda.bpm.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.camunda.bpm.extension.test.spring.ContextPrewarmer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The context prewarmed before the test class runs is the one the test class gets (a configuration of its own, so no
+ * other test class boots it first).
+ */
+@TestPropertySource(properties = "spring.application.name=context-prewarmer-test")
+class ContextPrewarmerTest extends AbstractExampleTest {
+
+  private static ApplicationContext prewarmedContext;
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @BeforeAll
+  static void prewarm() throws InterruptedException, ExecutionException {
+    String testClass = ContextPrewarmerTest.class.getName();
+    prewarmedContext = ContextPrewarmer.prewarm(List.of(testClass)).get().get(testClass);
+  }
+
+  @Test
+  void ensurePrewarmedContextUsed() {
+
+    given()
+        .a_process_engine();
+
+    assertThat(prewarmedContext).isNotNull();
+    assertThat(applicationContext).isSameAs(prewarmedContext);
+
+  }
+
+}
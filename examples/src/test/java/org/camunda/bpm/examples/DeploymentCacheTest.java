@@ -0,0 +1,79 @@
+package org.camunda.bpm.examples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.extension.test.CamundaSpringBootTestApp;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Two boots of the same context with the deployment cache: the second one resumes the deployment of the first one,
+ * while the process instances, test deployments and history left by the first one are gone.
+ */
+class DeploymentCacheTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void ensureDeploymentReused() {
+
+    List<String> deploymentIds;
+    try (ConfigurableApplicationContext context = boot()) {
+      ProcessEngine processEngine = context.getBean(ProcessEngine.class);
+      deploymentIds = getDeploymentIds(processEngine);
+      assertThat(deploymentIds).isNotEmpty();
+
+      processEngine.getRuntimeService().startProcessInstanceByKey("ChildProcess");
+      processEngine.getRepositoryService().createDeployment()
+          .addModelInstance("AdHocProcess.bpmn", Bpmn.createExecutableProcess("AdHocProcess")
+              .camundaHistoryTimeToLive(1)
+              .startEvent()
+              .userTask("UserTask_AdHoc")
+              .endEvent()
+              .done())
+          .deploy();
+      processEngine.getRuntimeService().startProcessInstanceByKey("AdHocProcess");
+    }
+
+    try (ConfigurableApplicationContext context = boot()) {
+      ProcessEngine processEngine = context.getBean(ProcessEngine.class);
+      assertThat(getDeploymentIds(processEngine)).isEqualTo(deploymentIds);
+      assertThat(processEngine.getRepositoryService().createProcessDefinitionQuery()
+          .processDefinitionKey("AdHocProcess").count()).isZero();
+      assertThat(processEngine.getRuntimeService().createProcessInstanceQuery().count()).isZero();
+      assertThat(processEngine.getTaskService().createTaskQuery().count()).isZero();
+      assertThat(processEngine.getHistoryService().createHistoricProcessInstanceQuery().count()).isZero();
+      assertThat(processEngine.getHistoryService().createHistoricActivityInstanceQuery().count()).isZero();
+    }
+
+  }
+
+  private ConfigurableApplicationContext boot() {
+    return new SpringApplicationBuilder(CamundaSpringBootTestApp.class, TestApp.class)
+        .web(WebApplicationType.NONE)
+        .properties(
+            "camunda.bpm.test.deployment-cache.enabled=true",
+            "camunda.bpm.test.deployment-cache.directory=" + directory,
+            "camunda.bpm.test.tenant-isolation=false")
+        .run();
+  }
+
+  private static List<String> getDeploymentIds(ProcessEngine processEngine) {
+    return processEngine.getRepositoryService().createDeploymentQuery()
+        .orderByDeploymentId().asc()
+        .list().stream()
+        .map(Deployment::getId)
+        .toList();
+  }
+
+}
@@ -11,7 +11,7 @@ class DeploymentTest extends AbstractExampleTest {
         .a_process_engine();
 
     then()
-        .deployed_process_definitions(1)
+        .deployed_process_definitions(6)
         .deployed_process_definition("TestProcess");
 
   }
@@ -0,0 +1,54 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.camunda.bpm.engine.HistoryService;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.engine.ScenarioTenant;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Cleanup of more process instances than fit into one delete batch, runtime and history.
+ */
+class CleanupTest extends AbstractExampleTest {
+
+  private static final int PROCESSES = 501;
+
+  @Autowired
+  private WorkflowTestHelper workflowHelper;
+
+  @Autowired
+  private HistoryService historyService;
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Test
+  void ensureProcessesDeletedInBatches() {
+
+    given()
+        .a_process_engine();
+
+    IntStream.range(0, PROCESSES).forEach(index -> workflowHelper.createProcess("ChildProcess", Map.of()));
+
+    then()
+        .active_processes(PROCESSES, "ChildProcess");
+
+    assertThat(workflowHelper.deleteProcesses("cleanup")).isEqualTo(PROCESSES);
+    assertThat(workflowHelper.deleteHistoryProcesses()).isEqualTo(PROCESSES);
+
+    then()
+        .no_active_processes();
+
+    assertThat(historyService.createHistoricProcessInstanceQuery()
+        .tenantIdIn(scenarioTenant.getTenantId())
+        .count()).isZero();
+
+  }
+
+}
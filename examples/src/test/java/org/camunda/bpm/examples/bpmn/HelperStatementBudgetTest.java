@@ -0,0 +1,57 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * A helper call exceeding the SQL budget of a single call fails, a query within the budget passes.
+ */
+@TestPropertySource(properties = {
+    "camunda.bpm.test.sql-budget.max-statements-per-call=3",
+    "camunda.bpm.test.sql-budget.fail=true"
+})
+class HelperStatementBudgetTest extends AbstractExampleTest {
+
+  @Autowired
+  private WorkflowTestHelper workflowHelper;
+
+  @Autowired
+  private RuntimeService runtimeService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Test
+  void ensureHelperCallExceedingBudgetFails() {
+
+    given()
+        .a_process_engine();
+
+    String processId = runtimeService.startProcessInstanceByKey("ChildProcess", Map.of()).getId();
+    String taskId = taskService.createTaskQuery()
+        .processInstanceId(processId)
+        .singleResult()
+        .getId();
+
+    assertThat(workflowHelper.countTasksByKey("UserTask_Child")).isEqualTo(1);
+
+    assertThatThrownBy(() -> workflowHelper.completeTask(taskId))
+        .isInstanceOf(AssertionError.class)
+        .hasMessageContaining("Helper call 'completeTask' exceeds the SQL budget");
+
+    then()
+        .no_active_processes();
+
+  }
+
+}
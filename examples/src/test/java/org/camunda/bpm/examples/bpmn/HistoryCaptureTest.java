@@ -0,0 +1,7 @@
+package org.camunda.bpm.examples.bpmn;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "camunda.bpm.test.history-capture.enabled=true")
+class HistoryCaptureTest extends HistoryTest {
+}
@@ -0,0 +1,97 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.ActivityTypes;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.engine.ScenarioTenant;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Activity and task history of the example process and a standalone task, read from the history tables. The same
+ * scenario is answered by the history capture in {@link HistoryCaptureTest} and {@link TransientHistoryCaptureTest}.
+ */
+class HistoryTest extends AbstractExampleTest {
+
+  @Autowired
+  protected WorkflowTestHelper workflowHelper;
+
+  @Autowired
+  private RuntimeService runtimeService;
+
+  @Autowired
+  private TaskService taskService;
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Test
+  void ensureHistory() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("12345")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    when()
+        .create_a_process_by_message("TestProcess");
+
+    then()
+        .active_task("UserTask_ReviewResults");
+
+    String processId = runtimeService.createProcessInstanceQuery()
+        .processInstanceBusinessKey("12345")
+        .singleResult()
+        .getId();
+    String taskId = taskService.createTaskQuery()
+        .processInstanceId(processId)
+        .singleResult()
+        .getId();
+    completeStandaloneTask();
+
+    when()
+        .complete_task("UserTask_ReviewResults");
+
+    then()
+        .no_active_processes()
+        .completed_tasks(2)
+        .completed_tasks(1, "UserTask_ReviewResults")
+        .withActivities("Start_TestProcess", "Process Test Data", "UserTask_ReviewResults")
+        .withActivitiesInOrder("Start_TestProcess", "Task_ProcessTestData", "UserTask_ReviewResults", "End_TestProcess")
+        .withActivity("UserTask_ReviewResults", 1);
+
+    // the task referenced by completed_task_referenced_as_
+    HistoricTaskInstance historicTask = workflowHelper.getHistoryTask(taskId);
+    assertThat(historicTask).isNotNull();
+    assertThat(historicTask.getTaskDefinitionKey()).isEqualTo("UserTask_ReviewResults");
+    assertThat(historicTask.getEndTime()).isNotNull();
+
+    assertThat(workflowHelper.getActivitiesByType(processId, ActivityTypes.TASK_USER_TASK))
+        .extracting(HistoricActivityInstance::getActivityId)
+        .containsExactly("UserTask_ReviewResults");
+    HistoricActivityInstance activity = workflowHelper.getLastActivityTaskById(processId, "UserTask_ReviewResults");
+    assertThat(activity.getTaskId()).isEqualTo(taskId);
+    assertThat(activity.getStartTime()).isNotNull();
+    assertThat(activity.getEndTime()).isNotNull();
+    assertThat(activity.getDurationInMillis()).isNotNull();
+
+  }
+
+  private void completeStandaloneTask() {
+    Task task = taskService.newTask();
+    task.setName("Standalone Task");
+    task.setTenantId(scenarioTenant.getTenantId());
+    taskService.saveTask(task);
+    taskService.complete(task.getId());
+  }
+
+}
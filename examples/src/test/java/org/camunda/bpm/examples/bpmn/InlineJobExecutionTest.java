@@ -0,0 +1,52 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The asynchronous continuation of the example process is executed in the test thread, the job executor is stopped.
+ */
+@TestPropertySource(properties = "camunda.bpm.test.job-execution.inline=true")
+class InlineJobExecutionTest extends AbstractExampleTest {
+
+  @Autowired
+  private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Test
+  void ensureJobsExecutedInline() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("12345")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    assertThat(processEngineConfiguration.getJobExecutor().isActive()).isFalse();
+
+    when()
+        .create_a_process_by_message("TestProcess");
+
+    // only the inline execution can have passed the asynchronous 'Process Test Data'
+    then()
+        .active_processes(1, "TestProcess")
+        .active_task("UserTask_ReviewResults")
+        .withActivity("Task_ProcessTestData", 1);
+
+    when()
+        .complete_task("UserTask_ReviewResults");
+
+    then()
+        .no_active_processes()
+        .withActivitiesInOrder("Start_TestProcess", "Task_ProcessTestData", "UserTask_ReviewResults", "End_TestProcess");
+
+    assertThat(processEngineConfiguration.getJobExecutor().isActive()).isFalse();
+
+  }
+
+}
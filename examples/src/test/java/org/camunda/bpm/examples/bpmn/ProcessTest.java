@@ -1,12 +1,28 @@
 package org.camunda.bpm.examples.bpmn;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
 import java.util.Map;
 
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.process.model.InboundMessage;
+import org.camunda.bpm.extension.test.process.scenario.ProcessLoad;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.tngtech.jgiven.annotation.ScenarioStage;
 
 class ProcessTest extends AbstractExampleTest {
 
+  @ScenarioStage
+  ProcessLoad<?> load;
+
+  @Autowired
+  private RuntimeService runtimeService;
+
   @Test
   void ensureProcess() {
 
@@ -37,7 +53,165 @@ class ProcessTest extends AbstractExampleTest {
     then()
         .no_active_processes()
         .completed_tasks(1)
-        .completed_tasks(1, "UserTask_ReviewResults");
+        .completed_tasks(1, "UserTask_ReviewResults")
+        .withActivities("Start_TestProcess", "Process Test Data", "UserTask_ReviewResults")
+        .withActivity("End_TestProcess")
+        .withoutActivity("Unknown Activity")
+        .withActivitiesInOrder("Start_TestProcess", "Task_ProcessTestData", "UserTask_ReviewResults", "End_TestProcess")
+        .withActivity("UserTask_ReviewResults", 1);
+
+  }
+
+  @Test
+  void ensureMultiInstanceProcess() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4711");
+
+    when()
+        .create_a_process("MultiInstanceProcess");
+
+    then()
+        .active_tasks(2, "UserTask_Approve");
+
+    when()
+        .complete_tasks("UserTask_Approve");
+
+    then()
+        .no_active_processes()
+        .completed_tasks(2, "UserTask_Approve")
+        .withActivities("UserTask_Approve", "UserTask_Approve#multiInstanceBody")
+        .withActivity("End_MultiInstanceProcess")
+        .withActivity("UserTask_Approve", 2)
+        .withActivitiesInOrder("UserTask_Approve#multiInstanceBody", "UserTask_Approve", "End_MultiInstanceProcess");
+
+  }
+
+  @Test
+  void ensureProcessesCompletedInBatch() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("67890")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    when()
+        .create_a_process_by_message("TestProcess")
+        .create_a_process_by_message("TestProcess")
+        .create_a_process_by_message("TestProcess");
+
+    then()
+        .active_tasks(3, "UserTask_ReviewResults");
+
+    when()
+        .complete_tasks_in_one_transaction("UserTask_ReviewResults");
+
+    then()
+        .no_active_processes();
+
+    when()
+        .create_$_processes_by_message(3, "TestProcess");
+
+    then()
+        .active_processes(3, "TestProcess");
+
+    assertThat(runtimeService.createProcessInstanceQuery()
+        .processInstanceBusinessKeyLike("67890-%")
+        .list())
+        .extracting(ProcessInstance::getBusinessKey)
+        .containsExactlyInAnyOrder("67890-1", "67890-2", "67890-3");
+
+    when()
+        .complete_tasks_in_parallel("UserTask_ReviewResults", 2);
+
+    then()
+        .no_active_processes();
+
+  }
+
+  @Test
+  void ensureInboundMessagesCorrelated() {
+
+    Map<String, Object> payload = Map.of("message", "Hello World!");
+
+    given()
+        .a_process_engine();
+
+    when()
+        .correlate_messages(List.of(
+            InboundMessage.of("TestProcess", "1", payload),
+            InboundMessage.of("TestProcess", "2", payload)));
+
+    then()
+        .active_processes(2, "TestProcess");
+
+    when()
+        .correlate_messages_in_parallel(List.of(
+            InboundMessage.of("TestProcess", "3", payload),
+            InboundMessage.of("TestProcess", "4", payload),
+            InboundMessage.of("TestProcess", "5", payload)), 2)
+        .complete_tasks_in_one_transaction("UserTask_ReviewResults");
+
+    then()
+        .no_active_processes();
+
+  }
+
+  @Test
+  void ensureDependentMessagesCorrelatedInOrder() {
+
+    // the intermediate message of a business key waits for the process its start message started
+    List<InboundMessage> messages = List.of(
+        InboundMessage.of("ChainStart", "a", Map.of()),
+        InboundMessage.of("ChainNext", "a", Map.of()),
+        InboundMessage.of("ChainStart", "b", Map.of()),
+        InboundMessage.of("ChainNext", "b", Map.of()));
+
+    given()
+        .a_process_engine();
+
+    when()
+        .correlate_messages(messages);
+
+    then()
+        .active_tasks(2, "UserTask_Chain");
+
+    when()
+        .complete_tasks("UserTask_Chain")
+        .correlate_messages_in_parallel(messages, 2);
+
+    then()
+        .active_tasks(2, "UserTask_Chain");
+
+    when()
+        .complete_tasks("UserTask_Chain");
+
+    then()
+        .no_active_processes();
+
+  }
+
+  @Test
+  void ensureProcessUnderLoad() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("12345")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    load
+        .a_load_of(20)
+        .with_concurrency(4)
+        .each_instance_is_created_by_message("TestProcess")
+        .each_instance_completes_task("UserTask_ReviewResults")
+        .the_load_is_executed()
+        .all_instances_completed()
+        .at_most_optimistic_locking_failures(0);
+
+    then()
+        .no_active_processes()
+        .step_timings_reported();
 
   }
 
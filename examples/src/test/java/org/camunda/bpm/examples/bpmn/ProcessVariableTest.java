@@ -0,0 +1,50 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.camunda.bpm.engine.variable.Variables.SerializationDataFormats.JAVA;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.engine.variable.Variables;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "camunda.bpm.generic-properties.properties.java-serialization-format-enabled=true")
+class ProcessVariableTest extends AbstractExampleTest {
+
+  @Test
+  void ensureSerializedVariables() {
+
+    List<String> items = new ArrayList<>(List.of("first", "second"));
+
+    given()
+        .a_process_engine()
+        .a_business_key("4711")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    when()
+        .create_a_process_by_message("TestProcess")
+        .set_variables(Map.of("items", Variables.objectValue(items).serializationDataFormat(JAVA).create()));
+
+    then()
+        .process_runtime()
+        .contains("message", "Hello World!")
+        .contains("items", items);
+
+    // the runtime model is provided to custom stages, which may change it
+    Map<String, Object> runtimeModel = then().runtimeModel;
+    assertThat(runtimeModel.put("items", List.of("third"))).isNotNull();
+    assertThat(runtimeModel.remove("message")).isEqualTo("Hello World!");
+
+    then()
+        .contains("items", List.of("third"))
+        .containsKey("items");
+
+    assertThat(runtimeModel).doesNotContainKey("message");
+
+  }
+
+}
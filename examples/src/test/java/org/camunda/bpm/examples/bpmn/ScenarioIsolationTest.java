@@ -0,0 +1,74 @@
+package org.camunda.bpm.examples.bpmn;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.process.model.InboundMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Two scenarios running concurrently against one engine, with the same business key (tenant isolation is enabled
+ * for the examples).
+ */
+@Execution(ExecutionMode.CONCURRENT)
+class ScenarioIsolationTest extends AbstractExampleTest {
+
+  private static final CyclicBarrier BOTH_SCENARIOS_STARTED = new CyclicBarrier(2);
+
+  @Test
+  void ensureScenarioIsolated() {
+    ensureIsolation();
+  }
+
+  @Test
+  void ensureConcurrentScenarioIsolated() {
+    ensureIsolation();
+  }
+
+  private void ensureIsolation() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4711")
+        .a_process_model();
+
+    when()
+        .correlate_messages(List.of(InboundMessage.of("ChainStart", "4711", Map.of())))
+        .create_a_process("ParentProcess")
+        .execute("the concurrent scenario started its processes", ScenarioIsolationTest::awaitConcurrentScenario)
+        .correlate_messages(List.of(InboundMessage.of("ChainNext", "4711", Map.of())));
+
+    then()
+        .active_processes(3)
+        .active_processes(1, "ChildProcess")
+        .active_tasks(1, "UserTask_Chain")
+        .active_tasks(1, "UserTask_Child");
+
+    when()
+        .complete_tasks("UserTask_Chain", "UserTask_Child");
+
+    then()
+        .no_active_processes()
+        .completed_tasks(2);
+
+  }
+
+  private static int awaitConcurrentScenario() {
+    try {
+      return BOTH_SCENARIOS_STARTED.await(30, TimeUnit.SECONDS);
+    } catch (TimeoutException | BrokenBarrierException ex) {
+      throw new IllegalStateException("Scenarios not executed concurrently", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(ex);
+    }
+  }
+
+}
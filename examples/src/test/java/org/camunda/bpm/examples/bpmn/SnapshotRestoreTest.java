@@ -0,0 +1,139 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * A scenario deploying a process model, and a scenario after the restore of the database snapshot. Then two scenarios
+ * deploying different models of the same process, which get the same definition id after the restore (with the
+ * database id generator).
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@TestPropertySource(properties = {
+    "camunda.bpm.id-generator=simple",
+    "camunda.bpm.test.cleanup.snapshot=true",
+    "camunda.bpm.test.tenant-isolation=false"
+})
+class SnapshotRestoreTest extends AbstractExampleTest {
+
+  private static String deployedProcessDefinitionId;
+
+  private static String redeployedProcessDefinitionId;
+
+  @Autowired
+  private RepositoryService repositoryService;
+
+  @Autowired
+  private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Test
+  @Order(1)
+  void ensureProcessDeployedDuringScenario() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4711");
+
+    when()
+        .execute("the process model 'AdHocProcess' is deployed", () -> deployAdHocProcess("Review ad hoc"))
+        .create_a_process("AdHocProcess");
+
+    then()
+        .deployed_process_definitions(7)
+        .active_processes(1, "AdHocProcess")
+        .active_task("UserTask_AdHoc");
+
+    assertThat(processEngineConfiguration.getDeploymentCache().getProcessDefinitionCache()
+        .get(deployedProcessDefinitionId)).isNotNull();
+
+  }
+
+  @Test
+  @Order(2)
+  void ensureDeploymentRestored() {
+
+    given()
+        .a_process_engine();
+
+    then()
+        .deployed_process_definitions(6)
+        .no_active_processes();
+
+    assertThat(deployedProcessDefinitionId).isNotNull();
+    assertThat(processEngineConfiguration.getDeploymentCache().getProcessDefinitionCache()
+        .get(deployedProcessDefinitionId)).isNull();
+    assertThat(processEngineConfiguration.getDeploymentCache().getBpmnModelInstanceCache()
+        .get(deployedProcessDefinitionId)).isNull();
+
+  }
+
+  @Test
+  @Order(3)
+  void ensureActivityNamesOfDeployedModel() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4712");
+
+    when()
+        .execute("the process model 'AdHocProcess' is deployed", () -> deployAdHocProcess("Review ad hoc"))
+        .create_a_process("AdHocProcess");
+
+    then()
+        .active_task("UserTask_AdHoc")
+        .withActivity("Review ad hoc");
+
+    redeployedProcessDefinitionId = deployedProcessDefinitionId;
+
+  }
+
+  @Test
+  @Order(4)
+  void ensureActivityNamesOfRedeployedModel() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4712");
+
+    when()
+        .execute("another process model 'AdHocProcess' is deployed", () -> deployAdHocProcess("Approve ad hoc"))
+        .create_a_process("AdHocProcess");
+
+    assertThat(deployedProcessDefinitionId).isEqualTo(redeployedProcessDefinitionId);
+
+    then()
+        .active_task("UserTask_AdHoc")
+        .withActivity("Approve ad hoc")
+        .withoutActivity("Review ad hoc");
+
+  }
+
+  private String deployAdHocProcess(String taskName) {
+    BpmnModelInstance modelInstance = Bpmn.createExecutableProcess("AdHocProcess")
+        .camundaHistoryTimeToLive(1)
+        .startEvent("Start_AdHocProcess")
+        .userTask("UserTask_AdHoc").name(taskName)
+        .endEvent("End_AdHocProcess")
+        .done();
+    ProcessDefinition processDefinition = repositoryService.createDeployment()
+        .addModelInstance("AdHocProcess.bpmn", modelInstance)
+        .deployWithResult()
+        .getDeployedProcessDefinitions()
+        .get(0);
+    deployedProcessDefinitionId = processDefinition.getId();
+    return deployedProcessDefinitionId;
+  }
+
+}
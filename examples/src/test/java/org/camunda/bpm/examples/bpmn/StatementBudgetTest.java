@@ -0,0 +1,35 @@
+package org.camunda.bpm.examples.bpmn;
+
+import java.util.Map;
+
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import com.tngtech.jgiven.annotation.Pending;
+
+@TestPropertySource(properties = {
+    "camunda.bpm.test.sql-budget.max-statements-per-step=5",
+    "camunda.bpm.test.sql-budget.fail=true"
+})
+class StatementBudgetTest extends AbstractExampleTest {
+
+  // pending if a step fails, so the test fails if the step exceeding the budget passes in the report
+  @Test
+  @Pending(executeSteps = true, failIfPass = true)
+  void ensureStepExceedingBudgetFails() {
+
+    given()
+        .a_process_engine()
+        .a_business_key("4711")
+        .a_process_model(Map.of("message", "Hello World!"));
+
+    when()
+        .create_a_process_by_message("TestProcess");
+
+    then()
+        .active_processes(1, "TestProcess");
+
+  }
+
+}
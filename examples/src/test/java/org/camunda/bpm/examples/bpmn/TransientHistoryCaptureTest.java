@@ -0,0 +1,29 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = {
+    "camunda.bpm.test.history-capture.enabled=true",
+    "camunda.bpm.test.history-capture.persist=false"
+})
+class TransientHistoryCaptureTest extends HistoryTest {
+
+  @Test
+  void ensureHistoryTablesRejected() {
+
+    given()
+        .a_process_engine();
+
+    // the task variables are in the history tables only
+    assertThatThrownBy(() -> workflowHelper.getHistoryTasks("UserTask_ReviewResults", Map.of("approved", true)))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("camunda.bpm.test.history-capture.persist=false");
+
+  }
+
+}
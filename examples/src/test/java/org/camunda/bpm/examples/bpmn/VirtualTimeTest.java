@@ -0,0 +1,95 @@
+package org.camunda.bpm.examples.bpmn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.examples.AbstractExampleTest;
+import org.camunda.bpm.extension.test.engine.VirtualClock;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Isolated;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Scenarios in virtual time, without tenant isolation, so the job executor is stopped meanwhile. Isolated from
+ * concurrent test classes, which reset the engine clock after each scenario.
+ */
+@Isolated
+@TestPropertySource(properties = {
+    "camunda.bpm.test.tenant-isolation=false",
+    "camunda.bpm.test.job-execution.max-executions=100"
+})
+class VirtualTimeTest extends AbstractExampleTest {
+
+  private static final Date START_TIME = Date.from(Instant.parse("2024-01-01T08:00:00Z"));
+
+  @Autowired
+  private RepositoryService repositoryService;
+
+  @Autowired
+  private ProcessEngineConfigurationImpl processEngineConfiguration;
+
+  @Autowired
+  private VirtualClock virtualClock;
+
+  @Test
+  void ensureTimersExecutedInOrder() {
+
+    given()
+        .a_process_engine()
+        .the_current_time(START_TIME)
+        .a_business_key("4711");
+
+    when()
+        .create_a_process("TimerProcess")
+        .time_passes(Duration.ofHours(3));
+
+    // the escalation precedes the routine timer due at the same time by its priority, and interrupts the review
+    then()
+        .current_time(Date.from(START_TIME.toInstant().plus(Duration.ofHours(3))))
+        .withActivity("Timer_Reminder", 2)
+        .withActivitiesInOrder("Timer_Reminder", "Timer_Reminder", "Timer_Escalation", "UserTask_Escalated")
+        .withoutActivity("Timer_Routine")
+        .active_tasks(1)
+        .active_task("UserTask_Escalated");
+
+    assertThat(processEngineConfiguration.getJobExecutor().isActive()).isTrue();
+
+  }
+
+  @Test
+  void ensureEndlessTimerCycleStopped() {
+
+    repositoryService.createDeployment()
+        .addModelInstance("EndlessTimerProcess.bpmn", Bpmn.createExecutableProcess("EndlessTimerProcess")
+            .camundaHistoryTimeToLive(1)
+            .startEvent("Start_EndlessTimerProcess")
+            .userTask("UserTask_Wait")
+            .boundaryEvent("Timer_Endless").cancelActivity(false).timerWithCycle("R/PT1M")
+            .endEvent("End_Endless")
+            .done())
+        .deploy();
+
+    given()
+        .a_process_engine()
+        .the_current_time(START_TIME)
+        .a_business_key("4711");
+
+    when()
+        .create_a_process("EndlessTimerProcess");
+
+    assertThatThrownBy(() -> virtualClock.advanceTo(Date.from(START_TIME.toInstant().plus(Duration.ofDays(1)))))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("More than 100 jobs executed in one go");
+    assertThat(processEngineConfiguration.getJobExecutor().isActive()).isTrue();
+
+  }
+
+}
@@ -0,0 +1,23 @@
+package org.camunda.bpm.extension.test.engine;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+
+/**
+ * Counts the commands executed by the engine, including nested commands.
+ */
+public class CommandCountingInterceptor extends CommandInterceptor {
+
+  private final EngineStatistics engineStatistics;
+
+  public CommandCountingInterceptor(EngineStatistics engineStatistics) {
+    this.engineStatistics = engineStatistics;
+  }
+
+  @Override
+  public <T> T execute(Command<T> command) {
+    engineStatistics.commandExecuted();
+    return next.execute(command);
+  }
+
+}
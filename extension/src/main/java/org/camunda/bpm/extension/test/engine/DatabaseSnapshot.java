@@ -0,0 +1,178 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.db.DbIdGenerator;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.persistence.deploy.cache.DeploymentCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Physical reset of the embedded H2 engine database, enabled by {@code camunda.bpm.test.cleanup.snapshot=true}.
+ * <p>
+ * The content of all engine tables is copied into a separate schema before the first scenario (i.e. after the
+ * deployment) and copied back after each scenario, so every scenario starts against the same database.
+ */
+@Component
+public class DatabaseSnapshot {
+
+  private static final Logger log = LoggerFactory.getLogger(DatabaseSnapshot.class);
+
+  private static final String H2 = "H2";
+  private static final String SNAPSHOT_SCHEMA = "CAMUNDA_TEST_SNAPSHOT";
+  private static final String ENGINE_TABLE_PATTERN = "ACT_%";
+
+  @Autowired
+  private ProcessEngineConfiguration processEngineConfiguration;
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Value("${camunda.bpm.test.cleanup.snapshot:false}")
+  private boolean enabled;
+
+  private List<String> tables;
+
+  @PostConstruct
+  public void checkConfiguration() {
+    if (enabled && scenarioTenant.isEnabled()) {
+      throw new IllegalStateException("Database snapshots can't be combined with tenant isolation");
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Takes the snapshot, once.
+   */
+  public synchronized void take() {
+    if (!enabled || tables != null) {
+      return;
+    }
+    var startTime = System.currentTimeMillis();
+    try (Connection connection = getConfiguration().getDataSource().getConnection();
+        Statement statement = connection.createStatement()) {
+      String databaseProductName = connection.getMetaData().getDatabaseProductName();
+      if (!H2.equals(databaseProductName)) {
+        throw new IllegalStateException("Database snapshots are supported for H2 only, not " + databaseProductName);
+      }
+      List<String> engineTables = getEngineTables(connection);
+      statement.execute("CREATE SCHEMA IF NOT EXISTS " + SNAPSHOT_SCHEMA);
+      for (String table : engineTables) {
+        statement.execute("DROP TABLE IF EXISTS " + snapshotTable(table));
+        statement.execute("CREATE TABLE " + snapshotTable(table) + " AS SELECT * FROM " + table);
+      }
+      tables = engineTables;
+    } catch (SQLException ex) {
+      throw new ProcessEngineException("Database snapshot failed", ex);
+    }
+    log.info("Took database snapshot of {} table(s), time used {} ms",
+        tables.size(), System.currentTimeMillis() - startTime);
+  }
+
+  /**
+   * Restores the snapshot, the job executor is stopped meanwhile. Definitions deployed by the scenario are removed
+   * from the deployment cache as well, caches outside the engine are notified by a {@link RestoredEvent}.
+   */
+  public synchronized void restore() {
+    if (!enabled || tables == null) {
+      return;
+    }
+    var startTime = System.currentTimeMillis();
+    JobExecutor jobExecutor = getConfiguration().getJobExecutor();
+    boolean jobExecutorActive = jobExecutor != null && jobExecutor.isActive();
+    if (jobExecutorActive) {
+      jobExecutor.shutdown();
+    }
+    try (Connection connection = getConfiguration().getDataSource().getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+      try {
+        for (String table : tables) {
+          statement.execute("TRUNCATE TABLE " + table);
+          statement.execute("INSERT INTO " + table + " SELECT * FROM " + snapshotTable(table));
+        }
+      } finally {
+        statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+      }
+    } catch (SQLException ex) {
+      throw new ProcessEngineException("Database snapshot restore failed", ex);
+    } finally {
+      // id blocks fetched after the snapshot would be handed out twice
+      if (getConfiguration().getIdGenerator() instanceof DbIdGenerator dbIdGenerator) {
+        dbIdGenerator.reset();
+      }
+      discardDeploymentCache();
+      eventPublisher.publishEvent(new RestoredEvent(this));
+      if (jobExecutorActive) {
+        jobExecutor.start();
+      }
+    }
+    log.info("Restored database snapshot of {} table(s), time used {} ms",
+        tables.size(), System.currentTimeMillis() - startTime);
+  }
+
+  private void discardDeploymentCache() {
+    // the ids of definitions deployed by the scenario are handed out again
+    DeploymentCache deploymentCache = getConfiguration().getDeploymentCache();
+    deploymentCache.discardProcessDefinitionCache();
+    deploymentCache.discardDecisionDefinitionCache();
+    deploymentCache.discardDecisionRequirementsDefinitionCache();
+    deploymentCache.discardCaseDefinitionCache();
+    deploymentCache.discardCamundaFormDefinitionCache();
+  }
+
+  private List<String> getEngineTables(Connection connection) throws SQLException {
+    List<String> engineTables = new ArrayList<>();
+    DatabaseMetaData metaData = connection.getMetaData();
+    try (ResultSet resultSet = metaData.getTables(connection.getCatalog(), connection.getSchema(),
+        ENGINE_TABLE_PATTERN, new String[] { "TABLE", "BASE TABLE" })) {
+      while (resultSet.next()) {
+        engineTables.add(resultSet.getString("TABLE_NAME"));
+      }
+    }
+    return engineTables;
+  }
+
+  private String snapshotTable(String table) {
+    return SNAPSHOT_SCHEMA + "." + table;
+  }
+
+  private ProcessEngineConfigurationImpl getConfiguration() {
+    return (ProcessEngineConfigurationImpl) processEngineConfiguration;
+  }
+
+  /**
+   * Published after each restore, the ids handed out since the snapshot (e.g. of process definitions) are reused.
+   */
+  public static class RestoredEvent extends ApplicationEvent {
+
+    public RestoredEvent(DatabaseSnapshot source) {
+      super(source);
+    }
+
+  }
+
+}
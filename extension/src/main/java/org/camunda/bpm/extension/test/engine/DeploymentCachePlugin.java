@@ -0,0 +1,121 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.TaskService;
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.repository.Deployment;
+import org.camunda.bpm.engine.repository.ResourceTypes;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
+import org.camunda.bpm.engine.task.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes the state of an earlier test run from the database kept by the deployment cache (see
+ * {@code DeploymentCacheEnvironmentPostProcessor}), once the engine is built and before the job executor starts.
+ * <p>
+ * Process instances and standalone tasks are deleted, deployments without source (i.e. deployed by a test, not by a
+ * process application or the auto deployment) as well, and the history tables are emptied. The deployments of the
+ * process applications and their start events are kept, so the database does not grow from run to run.
+ */
+@Component
+public class DeploymentCachePlugin extends AbstractProcessEnginePlugin {
+
+  private static final Logger log = LoggerFactory.getLogger(DeploymentCachePlugin.class);
+
+  private static final int DELETE_BATCH_SIZE = 500;
+  private static final String HISTORY_TABLE_PATTERN = "ACT_HI_%";
+
+  @Value("${camunda.bpm.test.deployment-cache.enabled:false}")
+  private boolean enabled;
+
+  @Override
+  public void postProcessEngineBuild(ProcessEngine processEngine) {
+    if (!enabled) {
+      return;
+    }
+    var startTime = System.currentTimeMillis();
+    int deployments = deleteTestDeployments(processEngine.getRepositoryService());
+    int processes = deleteProcesses(processEngine.getRuntimeService());
+    int tasks = deleteTasks(processEngine.getTaskService());
+    deleteHistory(processEngine.getProcessEngineConfiguration().getDataSource());
+    log.info("Deleted {} test deployment(s), {} process(es), {} standalone task(s) and the history of an earlier run, "
+        + "time used {} ms", deployments, processes, tasks, System.currentTimeMillis() - startTime);
+  }
+
+  private int deleteTestDeployments(RepositoryService repositoryService) {
+    List<String> deploymentIds = repositoryService.createDeploymentQuery().list().stream()
+        .filter(deployment -> deployment.getSource() == null)
+        .map(Deployment::getId)
+        .toList();
+    deploymentIds.forEach(deploymentId -> repositoryService.deleteDeployment(deploymentId, true, true, true));
+    return deploymentIds.size();
+  }
+
+  private int deleteProcesses(RuntimeService runtimeService) {
+    int deleted = 0;
+    List<String> processIds;
+    do {
+      processIds = runtimeService.createProcessInstanceQuery().rootProcessInstances()
+          .listPage(0, DELETE_BATCH_SIZE).stream()
+          .map(ProcessInstance::getId)
+          .toList();
+      if (!processIds.isEmpty()) {
+        runtimeService.deleteProcessInstances(processIds, "earlier run", true, false, false, true);
+      }
+      deleted += processIds.size();
+    } while (processIds.size() == DELETE_BATCH_SIZE);
+    return deleted;
+  }
+
+  private int deleteTasks(TaskService taskService) {
+    // the process instances are deleted already
+    List<String> taskIds = taskService.createTaskQuery().list().stream()
+        .map(Task::getId)
+        .toList();
+    if (!taskIds.isEmpty()) {
+      taskService.deleteTasks(taskIds, true);
+    }
+    return taskIds.size();
+  }
+
+  private void deleteHistory(DataSource dataSource) {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      for (String table : getHistoryTables(connection)) {
+        statement.execute("TRUNCATE TABLE " + table);
+      }
+      statement.execute("DELETE FROM ACT_GE_BYTEARRAY WHERE TYPE_ = " + ResourceTypes.HISTORY.getValue());
+    } catch (SQLException ex) {
+      throw new ProcessEngineException("Deleting the history of an earlier run failed", ex);
+    }
+  }
+
+  private List<String> getHistoryTables(Connection connection) throws SQLException {
+    List<String> tables = new ArrayList<>();
+    DatabaseMetaData metaData = connection.getMetaData();
+    try (ResultSet resultSet = metaData.getTables(connection.getCatalog(), connection.getSchema(),
+        HISTORY_TABLE_PATTERN, new String[] { "TABLE", "BASE TABLE" })) {
+      while (resultSet.next()) {
+        tables.add(resultSet.getString("TABLE_NAME"));
+      }
+    }
+    return tables;
+  }
+
+}
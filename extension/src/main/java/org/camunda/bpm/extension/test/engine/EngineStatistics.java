@@ -0,0 +1,115 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters of the engine activity: commands and SQL statements executed (see {@link EngineStatisticsPlugin}) and
+ * time spent waiting for the job executor. The counters are global, the activity of a step is the difference of
+ * two {@link Snapshot}s.
+ * <p>
+ * In addition, the SQL statements executed by a single thread can be logged, see {@link #startStatementLog()}.
+ */
+@Component
+public class EngineStatistics {
+
+  private final AtomicLong commands = new AtomicLong();
+
+  private final AtomicLong statements = new AtomicLong();
+
+  private final AtomicLong jobWaitNanos = new AtomicLong();
+
+  private final ThreadLocal<StatementLog> statementLog = new ThreadLocal<>();
+
+  public void commandExecuted() {
+    commands.incrementAndGet();
+  }
+
+  public void statementExecuted(String sql) {
+    statements.incrementAndGet();
+    for (StatementLog log = statementLog.get(); log != null; log = log.getOuter()) {
+      log.add(sql);
+    }
+  }
+
+  /**
+   * Starts logging the statements executed by the current thread.
+   *
+   * @return The new log, null if the thread already logs (nested calls are logged by the outer one).
+   */
+  public StatementLog startStatementLog() {
+    if (statementLog.get() != null) {
+      return null;
+    }
+    StatementLog log = new StatementLog();
+    statementLog.set(log);
+    return log;
+  }
+
+  /**
+   * Starts logging the statements executed by the current thread within the log it already has (if any), e.g. for a
+   * helper call within a step. The statements are logged by both.
+   */
+  public StatementLog startInnerStatementLog() {
+    StatementLog log = new StatementLog(statementLog.get());
+    statementLog.set(log);
+    return log;
+  }
+
+  /**
+   * Stops the innermost log of the current thread, an enclosing one continues.
+   */
+  public void stopStatementLog() {
+    StatementLog log = statementLog.get();
+    if (log != null && log.getOuter() != null) {
+      statementLog.set(log.getOuter());
+    } else {
+      statementLog.remove();
+    }
+  }
+
+  public void jobExecutorWaited(long nanos) {
+    jobWaitNanos.addAndGet(nanos);
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(commands.get(), statements.get(), jobWaitNanos.get());
+  }
+
+  public static class Snapshot {
+
+    private final long commands;
+    private final long statements;
+    private final long jobWaitNanos;
+
+    public Snapshot(long commands, long statements, long jobWaitNanos) {
+      this.commands = commands;
+      this.statements = statements;
+      this.jobWaitNanos = jobWaitNanos;
+    }
+
+    public long getCommands() {
+      return commands;
+    }
+
+    public long getStatements() {
+      return statements;
+    }
+
+    public Duration getJobWaitTime() {
+      return Duration.ofNanos(jobWaitNanos);
+    }
+
+    /**
+     * @return The activity since the given (earlier) snapshot.
+     */
+    public Snapshot since(Snapshot snapshot) {
+      return new Snapshot(commands - snapshot.commands, statements - snapshot.statements,
+          jobWaitNanos - snapshot.jobWaitNanos);
+    }
+
+  }
+
+}
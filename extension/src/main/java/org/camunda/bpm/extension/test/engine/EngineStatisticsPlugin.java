@@ -0,0 +1,47 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the {@link CommandCountingInterceptor} and, once the MyBatis configuration exists, the
+ * {@link StatementCountingInterceptor}.
+ */
+@Component
+public class EngineStatisticsPlugin extends AbstractProcessEnginePlugin {
+
+  @Autowired
+  private EngineStatistics engineStatistics;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(
+        withCommandCounting(processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired()));
+    processEngineConfiguration.setCustomPreCommandInterceptorsTxRequiresNew(
+        withCommandCounting(processEngineConfiguration.getCustomPreCommandInterceptorsTxRequiresNew()));
+  }
+
+  @Override
+  public void postInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    // applies to all executors and statement handlers created afterwards
+    processEngineConfiguration.getSqlSessionFactory()
+        .getConfiguration()
+        .addInterceptor(new StatementCountingInterceptor(engineStatistics));
+  }
+
+  private List<CommandInterceptor> withCommandCounting(List<CommandInterceptor> customInterceptors) {
+    List<CommandInterceptor> interceptors = new ArrayList<>();
+    if (customInterceptors != null) {
+      interceptors.addAll(customInterceptors);
+    }
+    interceptors.add(new CommandCountingInterceptor(engineStatistics));
+    return interceptors;
+  }
+
+}
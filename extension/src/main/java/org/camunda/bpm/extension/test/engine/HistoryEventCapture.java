@@ -0,0 +1,268 @@
+package org.camunda.bpm.extension.test.engine;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.engine.history.HistoricActivityInstance;
+import org.camunda.bpm.engine.history.HistoricTaskInstance;
+import org.camunda.bpm.engine.impl.cfg.TransactionState;
+import org.camunda.bpm.engine.impl.context.Context;
+import org.camunda.bpm.engine.impl.history.event.HistoricActivityInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoricTaskInstanceEventEntity;
+import org.camunda.bpm.engine.impl.history.event.HistoryEvent;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.camunda.bpm.engine.impl.interceptor.CommandContext;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricActivityInstanceEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.HistoricTaskInstanceEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory sink for the activity and task history events, enabled by
+ * {@code camunda.bpm.test.history-capture.enabled=true}. The events are recorded once their transaction is committed,
+ * merged into one history instance per activity instance (per process instance) and per task (including standalone
+ * tasks), so activity and task history assertions don't read the history tables.
+ * <p>
+ * With {@code camunda.bpm.test.history-capture.persist=false} the history is not written to the database at all.
+ */
+@Component
+public class HistoryEventCapture implements HistoryEventHandler {
+
+  // the order of the history queries: start time, then sequence counter
+  private static final Comparator<HistoricActivityInstanceEntity> ACTIVITY_ORDER = Comparator
+      .comparing(HistoricActivityInstanceEntity::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
+      .thenComparingLong(HistoricActivityInstanceEntity::getSequenceCounter);
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Value("${camunda.bpm.test.history-capture.enabled:false}")
+  private boolean enabled;
+
+  @Value("${camunda.bpm.test.history-capture.persist:true}")
+  private boolean persist;
+
+  // process instance id -> activity instances
+  private final Map<String, ProcessHistory> processes = new ConcurrentHashMap<>();
+
+  // task id -> task, the tenant is checked per task
+  private final Map<String, HistoricTaskInstanceEntity> tasks = new ConcurrentHashMap<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public boolean isPersist() {
+    return persist;
+  }
+
+  @Override
+  public void handleEvent(HistoryEvent historyEvent) {
+    boolean activity = historyEvent instanceof HistoricActivityInstanceEventEntity
+        && historyEvent.getProcessInstanceId() != null;
+    if (!activity && !(historyEvent instanceof HistoricTaskInstanceEventEntity)) {
+      return;
+    }
+    CommandContext commandContext = Context.getCommandContext();
+    if (commandContext != null) {
+      // rolled back events (e.g. optimistic locking) are not recorded
+      commandContext.getTransactionContext().addTransactionListener(TransactionState.COMMITTED,
+          committedContext -> record(historyEvent));
+    } else {
+      record(historyEvent);
+    }
+  }
+
+  @Override
+  public void handleEvents(List<HistoryEvent> historyEvents) {
+    historyEvents.forEach(this::handleEvent);
+  }
+
+  private void record(HistoryEvent historyEvent) {
+    if (historyEvent instanceof HistoricActivityInstanceEventEntity event) {
+      processes.computeIfAbsent(event.getProcessInstanceId(), processId -> new ProcessHistory(event.getTenantId()))
+          .record(event);
+    } else if (historyEvent instanceof HistoricTaskInstanceEventEntity event) {
+      tasks.compute(event.getTaskId(), (taskId, task) -> merge(task, event));
+    }
+  }
+
+  /**
+   * @return Activity instances of the process, ordered by start time.
+   */
+  public List<HistoricActivityInstance> getActivities(String processId) {
+    ProcessHistory processHistory = processes.get(processId);
+    if (processHistory == null) {
+      return List.of();
+    }
+    return processHistory.activities().stream()
+        .sorted(ACTIVITY_ORDER)
+        .collect(toList());
+  }
+
+  /**
+   * @return Subset of the given activity ids and/or names, which were executed by the process.
+   */
+  public Set<String> getExistingActivities(String processId, Set<String> activities) {
+    Set<String> executedActivities = new HashSet<>();
+    getActivities(processId).forEach(activity -> {
+      executedActivities.add(activity.getActivityId());
+      executedActivities.add(activity.getActivityName());
+    });
+    // unnamed activities add null, which immutable sets (e.g. Set.of) can't be asked for
+    return activities.stream()
+        .filter(executedActivities::contains)
+        .collect(toSet());
+  }
+
+  /**
+   * @return Tasks of the scenario (tenant), or all, if not isolated.
+   */
+  public Stream<HistoricTaskInstance> getTasks() {
+    return tasks.values().stream()
+        .filter(task -> inScope(task.getTenantId()))
+        .map(HistoricTaskInstance.class::cast);
+  }
+
+  public HistoricTaskInstance getTask(String taskId) {
+    HistoricTaskInstanceEntity task = tasks.get(taskId);
+    return task != null && inScope(task.getTenantId()) ? task : null;
+  }
+
+  /**
+   * @param taskDefinitionKey
+   *          task type, null for all
+   * @return Number of completed (or deleted) tasks of the scenario.
+   */
+  public long countCompletedTasks(String taskDefinitionKey) {
+    return getTasks()
+        .filter(task -> task.getEndTime() != null)
+        .filter(task -> taskDefinitionKey == null || taskDefinitionKey.equals(task.getTaskDefinitionKey()))
+        .count();
+  }
+
+  /**
+   * Removes the recorded history of the scenario (tenant), or all, if not isolated.
+   */
+  public void clear() {
+    processes.values().removeIf(processHistory -> inScope(processHistory.tenantId));
+    tasks.values().removeIf(task -> inScope(task.getTenantId()));
+  }
+
+  private boolean inScope(String tenantId) {
+    return !scenarioTenant.isScoped() || Objects.equals(tenantId, scenarioTenant.getTenantId());
+  }
+
+  // every event carries the current state of the activity instance, the start time only the first one
+  private static HistoricActivityInstanceEntity merge(HistoricActivityInstanceEntity activity,
+      HistoricActivityInstanceEventEntity event) {
+    if (activity == null) {
+      activity = new HistoricActivityInstanceEntity();
+      activity.setStartTime(event.getStartTime());
+      activity.setSequenceCounter(event.getSequenceCounter());
+    }
+    activity.setId(event.getId());
+    activity.setActivityInstanceId(event.getActivityInstanceId());
+    activity.setParentActivityInstanceId(event.getParentActivityInstanceId());
+    activity.setActivityId(event.getActivityId());
+    activity.setActivityName(event.getActivityName());
+    activity.setActivityType(event.getActivityType());
+    activity.setProcessDefinitionId(event.getProcessDefinitionId());
+    activity.setProcessDefinitionKey(event.getProcessDefinitionKey());
+    activity.setProcessInstanceId(event.getProcessInstanceId());
+    activity.setRootProcessInstanceId(event.getRootProcessInstanceId());
+    activity.setExecutionId(event.getExecutionId());
+    activity.setTenantId(event.getTenantId());
+    activity.setActivityInstanceState(event.getActivityInstanceState());
+    // set by the events of the called instance or task only
+    if (event.getCalledProcessInstanceId() != null) {
+      activity.setCalledProcessInstanceId(event.getCalledProcessInstanceId());
+    }
+    if (event.getCalledCaseInstanceId() != null) {
+      activity.setCalledCaseInstanceId(event.getCalledCaseInstanceId());
+    }
+    if (event.getTaskId() != null) {
+      activity.setTaskId(event.getTaskId());
+      activity.setTaskAssignee(event.getTaskAssignee());
+    }
+    if (event.getEndTime() != null) {
+      activity.setEndTime(event.getEndTime());
+      activity.setDurationInMillis(activity.getStartTime() != null
+          ? event.getEndTime().getTime() - activity.getStartTime().getTime()
+          : event.getDurationInMillis());
+    }
+    return activity;
+  }
+
+  private static HistoricTaskInstanceEntity merge(HistoricTaskInstanceEntity task,
+      HistoricTaskInstanceEventEntity event) {
+    if (task == null) {
+      task = new HistoricTaskInstanceEntity();
+      task.setStartTime(event.getStartTime());
+    }
+    task.setId(event.getId());
+    task.setTaskId(event.getTaskId());
+    task.setTaskDefinitionKey(event.getTaskDefinitionKey());
+    task.setName(event.getName());
+    task.setDescription(event.getDescription());
+    task.setAssignee(event.getAssignee());
+    task.setOwner(event.getOwner());
+    task.setPriority(event.getPriority());
+    task.setDueDate(event.getDueDate());
+    task.setFollowUpDate(event.getFollowUpDate());
+    task.setParentTaskId(event.getParentTaskId());
+    task.setTaskState(event.getTaskState());
+    task.setProcessDefinitionId(event.getProcessDefinitionId());
+    task.setProcessDefinitionKey(event.getProcessDefinitionKey());
+    task.setProcessInstanceId(event.getProcessInstanceId());
+    task.setRootProcessInstanceId(event.getRootProcessInstanceId());
+    task.setExecutionId(event.getExecutionId());
+    task.setActivityInstanceId(event.getActivityInstanceId());
+    task.setCaseDefinitionId(event.getCaseDefinitionId());
+    task.setCaseInstanceId(event.getCaseInstanceId());
+    task.setCaseExecutionId(event.getCaseExecutionId());
+    task.setTenantId(event.getTenantId());
+    if (event.getEndTime() != null) {
+      task.setEndTime(event.getEndTime());
+      task.setDurationInMillis(task.getStartTime() != null
+          ? event.getEndTime().getTime() - task.getStartTime().getTime()
+          : event.getDurationInMillis());
+      task.setDeleteReason(event.getDeleteReason());
+    }
+    return task;
+  }
+
+  private static class ProcessHistory {
+
+    private final String tenantId;
+
+    // activity instance id -> activity instance, in the order of their first event
+    private final Map<String, HistoricActivityInstanceEntity> activities = new LinkedHashMap<>();
+
+    ProcessHistory(String tenantId) {
+      this.tenantId = tenantId;
+    }
+
+    synchronized void record(HistoricActivityInstanceEventEntity event) {
+      activities.compute(event.getActivityInstanceId(), (activityInstanceId, activity) -> merge(activity, event));
+    }
+
+    synchronized Collection<HistoricActivityInstanceEntity> activities() {
+      return List.copyOf(activities.values());
+    }
+
+  }
+
+}
@@ -0,0 +1,35 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.history.handler.HistoryEventHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the {@link HistoryEventCapture} as additional history event handler, if enabled.
+ */
+@Component
+public class HistoryEventCapturePlugin extends AbstractProcessEnginePlugin {
+
+  @Autowired
+  private HistoryEventCapture historyEventCapture;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    if (!historyEventCapture.isEnabled()) {
+      return;
+    }
+    List<HistoryEventHandler> handlers = new ArrayList<>();
+    if (processEngineConfiguration.getCustomHistoryEventHandlers() != null) {
+      handlers.addAll(processEngineConfiguration.getCustomHistoryEventHandlers());
+    }
+    handlers.add(historyEventCapture);
+    processEngineConfiguration.setCustomHistoryEventHandlers(handlers);
+    processEngineConfiguration.setEnableDefaultDbHistoryEventHandler(historyEventCapture.isPersist());
+  }
+
+}
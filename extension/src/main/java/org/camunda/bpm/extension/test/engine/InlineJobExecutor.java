@@ -0,0 +1,124 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.List;
+
+import org.camunda.bpm.engine.ManagementService;
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.exception.NullValueException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.runtime.Job;
+import org.camunda.bpm.engine.runtime.JobQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executes due jobs in the calling thread via {@link ManagementService#executeJob(String)}, ordered by due date and
+ * priority.
+ * <p>
+ * Enabled by {@code camunda.bpm.test.job-execution.inline=true}: the job executor is stopped, and the stages execute
+ * the due jobs after each step instead of waiting for the job executor. Used by the {@link VirtualClock} in any case.
+ */
+@Component
+public class InlineJobExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(InlineJobExecutor.class);
+
+  @Autowired
+  private ProcessEngineConfiguration processEngineConfiguration;
+
+  @Autowired
+  private ManagementService managementService;
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Value("${camunda.bpm.test.job-execution.inline:false}")
+  private boolean enabled;
+
+  // guards against jobs, which are re-created forever (e.g. timer cycles without end)
+  @Value("${camunda.bpm.test.job-execution.max-executions:10000}")
+  private int maxExecutions;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void stopJobExecutor() {
+    if (enabled && getJobExecutor() != null && getJobExecutor().isActive()) {
+      getJobExecutor().shutdown();
+      log.info("Job executor stopped, due jobs are executed inline");
+    }
+  }
+
+  /**
+   * Executes due jobs until none is left, including the jobs created by the executed ones.
+   *
+   * @param processInstanceId
+   *          process instance of the jobs, null for all jobs (of the scenario tenant)
+   * @return Number of executed jobs.
+   */
+  public int executeDueJobs(String processInstanceId) {
+    // the job executor may be started after the application is ready, e.g. by the process application
+    stopJobExecutor();
+    int executedJobs = 0;
+    Job job;
+    while ((job = first(dueJobs(processInstanceId))) != null) {
+      checkExecutions(++executedJobs);
+      executeJob(job);
+    }
+    return executedJobs;
+  }
+
+  JobQuery jobQuery() {
+    JobQuery query = managementService.createJobQuery().active();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
+  }
+
+  JobQuery dueJobs(String processInstanceId) {
+    JobQuery query = jobQuery().executable();
+    if (processInstanceId != null) {
+      query.processInstanceId(processInstanceId);
+    }
+    return query;
+  }
+
+  static Job first(JobQuery query) {
+    List<Job> jobs = query
+        .orderByJobDuedate().asc()
+        .orderByJobPriority().desc()
+        .listPage(0, 1);
+    return jobs.isEmpty() ? null : jobs.get(0);
+  }
+
+  void checkExecutions(int executedJobs) {
+    if (executedJobs > maxExecutions) {
+      throw new IllegalStateException("More than " + maxExecutions + " jobs executed in one go");
+    }
+  }
+
+  void executeJob(Job job) {
+    try {
+      managementService.executeJob(job.getId());
+    } catch (OptimisticLockingException | NullValueException ex) {
+      // executed by another thread meanwhile
+      log.debug("Job {} already executed: {}", job.getId(), ex.getMessage());
+    } catch (RuntimeException ex) {
+      // the failed job command has decremented the retries, as for the job executor
+      log.warn("Job {} failed: {}", job.getId(), ex.getMessage());
+    }
+  }
+
+  private JobExecutor getJobExecutor() {
+    return ((ProcessEngineConfigurationImpl) processEngineConfiguration).getJobExecutor();
+  }
+
+}
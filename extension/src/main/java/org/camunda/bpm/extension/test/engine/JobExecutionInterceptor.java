@@ -0,0 +1,32 @@
+package org.camunda.bpm.extension.test.engine;
+
+import org.camunda.bpm.engine.impl.interceptor.Command;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.camunda.bpm.engine.impl.jobexecutor.FailedJobListener;
+import org.camunda.bpm.engine.impl.jobexecutor.SuccessfulJobListener;
+
+/**
+ * Outermost command interceptor (runs after commit), signals the {@link JobExecutionLatch} whenever the job
+ * executor completed a job.
+ */
+public class JobExecutionInterceptor extends CommandInterceptor {
+
+  private final JobExecutionLatch jobExecutionLatch;
+
+  public JobExecutionInterceptor(JobExecutionLatch jobExecutionLatch) {
+    this.jobExecutionLatch = jobExecutionLatch;
+  }
+
+  @Override
+  public <T> T execute(Command<T> command) {
+    try {
+      return next.execute(command);
+    } finally {
+      // job listeners are invoked once per job, after the job transaction
+      if (command instanceof SuccessfulJobListener || command instanceof FailedJobListener) {
+        jobExecutionLatch.jobFinished();
+      }
+    }
+  }
+
+}
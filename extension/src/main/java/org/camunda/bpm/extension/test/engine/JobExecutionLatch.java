@@ -0,0 +1,125 @@
+package org.camunda.bpm.extension.test.engine;
+
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.runtime.JobQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event-driven replacement for {@code TestHelper.waitForJobExecutorToProcessAllJobs}.
+ * <p>
+ * Instead of sleeping a fixed interval between two job table polls, the waiting thread is woken up by
+ * {@link JobExecutionInterceptor} as soon as the job executor finished (or failed) a job. If no executable jobs
+ * are due, the wait returns right after the first check.
+ */
+@Component
+public class JobExecutionLatch {
+
+  private final Object monitor = new Object();
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Autowired
+  private EngineStatistics engineStatistics;
+
+  private long finishedJobs;
+
+  /**
+   * Signals all waiting threads that a job was finished by the job executor.
+   */
+  public void jobFinished() {
+    synchronized (monitor) {
+      finishedJobs++;
+      monitor.notifyAll();
+    }
+  }
+
+  /**
+   * Waits until no executable jobs are left.
+   *
+   * @param processEngineConfiguration
+   *          engine configuration
+   * @param maxMillisToWait
+   *          time limit
+   * @param intervalMillis
+   *          upper bound between two checks, in case a signal is missed (e.g. jobs made due by a clock change)
+   */
+  public void waitForJobExecutorToProcessAllJobs(ProcessEngineConfigurationImpl processEngineConfiguration,
+      long maxMillisToWait, long intervalMillis) {
+    waitForJobExecutorToProcessJobs(processEngineConfiguration, null, maxMillisToWait, intervalMillis);
+  }
+
+  /**
+   * Waits until no executable jobs of a process instance are left.
+   *
+   * @param processInstanceId
+   *          process instance, all jobs if null
+   */
+  public void waitForJobExecutorToProcessJobs(ProcessEngineConfigurationImpl processEngineConfiguration,
+      String processInstanceId, long maxMillisToWait, long intervalMillis) {
+    JobExecutor jobExecutor = processEngineConfiguration.getJobExecutor();
+    jobExecutor.start();
+
+    long startTime = System.nanoTime();
+    long deadline = System.currentTimeMillis() + maxMillisToWait;
+    try {
+      while (true) {
+        // read before the check, a job finished in between must not be missed
+        long observedFinishedJobs = getFinishedJobs();
+        if (!areJobsAvailable(processEngineConfiguration, processInstanceId)) {
+          return;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new ProcessEngineException("time limit of " + maxMillisToWait + " was exceeded");
+        }
+        // wake up the acquisition thread, it may back off while timers became due
+        jobExecutor.jobWasAdded();
+        awaitJobFinished(observedFinishedJobs, Math.min(remaining, intervalMillis));
+      }
+    } finally {
+      engineStatistics.jobExecutorWaited(System.nanoTime() - startTime);
+    }
+  }
+
+  public boolean areJobsAvailable(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    return areJobsAvailable(processEngineConfiguration, null);
+  }
+
+  public boolean areJobsAvailable(ProcessEngineConfigurationImpl processEngineConfiguration, String processInstanceId) {
+    JobQuery query = processEngineConfiguration.getManagementService()
+        .createJobQuery()
+        .executable();
+    if (processInstanceId != null) {
+      query.processInstanceId(processInstanceId);
+    }
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query.count() > 0;
+  }
+
+  private long getFinishedJobs() {
+    synchronized (monitor) {
+      return finishedJobs;
+    }
+  }
+
+  private void awaitJobFinished(long observedFinishedJobs, long timeoutMillis) {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    synchronized (monitor) {
+      long remaining = timeoutMillis;
+      while (finishedJobs == observedFinishedJobs && remaining > 0) {
+        try {
+          monitor.wait(remaining);
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          throw new ProcessEngineException("interrupted while waiting for the job executor", ex);
+        }
+        remaining = deadline - System.currentTimeMillis();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.interceptor.CommandInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the {@link JobExecutionInterceptor} in front of the engine's command interceptor chain.
+ */
+@Component
+public class JobExecutionPlugin extends AbstractProcessEnginePlugin {
+
+  @Autowired
+  private JobExecutionLatch jobExecutionLatch;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    List<CommandInterceptor> interceptors = new ArrayList<>();
+    if (processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired() != null) {
+      interceptors.addAll(processEngineConfiguration.getCustomPreCommandInterceptorsTxRequired());
+    }
+    interceptors.add(new JobExecutionInterceptor(jobExecutionLatch));
+    processEngineConfiguration.setCustomPreCommandInterceptorsTxRequired(interceptors);
+  }
+
+}
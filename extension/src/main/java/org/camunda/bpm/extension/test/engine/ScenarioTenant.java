@@ -0,0 +1,81 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-scenario tenant, enabled by {@code camunda.bpm.test.tenant-isolation=true}.
+ * <p>
+ * Every scenario gets its own tenant id (bound to the scenario thread). Process instances started by the scenario
+ * are assigned to it by {@link ScenarioTenantIdProvider}, all {@code WorkflowTestHelper} queries and the cleanup
+ * are restricted to it, so scenarios can run in parallel against one shared engine.
+ */
+@Component
+public class ScenarioTenant {
+
+  private static final String TENANT_ID_PREFIX = "scenario-";
+
+  private final ThreadLocal<String> tenantId = new ThreadLocal<>();
+
+  @Value("${camunda.bpm.test.tenant-isolation:false}")
+  private boolean enabled;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void begin() {
+    if (enabled) {
+      tenantId.set(TENANT_ID_PREFIX + UUID.randomUUID());
+    }
+  }
+
+  public void end() {
+    tenantId.remove();
+  }
+
+  public String getTenantId() {
+    return tenantId.get();
+  }
+
+  public boolean isScoped() {
+    return getTenantId() != null;
+  }
+
+  /**
+   * @return Whether the tenant id was assigned to a scenario, i.e. not to a tenant of the application.
+   */
+  public boolean isScenarioTenantId(String tenantId) {
+    return tenantId != null && tenantId.startsWith(TENANT_ID_PREFIX);
+  }
+
+  /**
+   * Applies the current tenant id to a query, if the current thread is scoped.
+   */
+  public void ifScoped(Consumer<String> tenantIdFilter) {
+    String currentTenantId = getTenantId();
+    if (currentTenantId != null) {
+      tenantIdFilter.accept(currentTenantId);
+    }
+  }
+
+  /**
+   * Binds the current tenant id to a job executed by another thread.
+   */
+  public <T> Callable<T> wrap(Callable<T> job) {
+    String currentTenantId = getTenantId();
+    return () -> {
+      tenantId.set(currentTenantId);
+      try {
+        return job.call();
+      } finally {
+        tenantId.remove();
+      }
+    };
+  }
+
+}
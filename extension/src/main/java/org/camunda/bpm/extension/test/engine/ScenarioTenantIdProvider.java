@@ -0,0 +1,69 @@
+package org.camunda.bpm.extension.test.engine;
+
+import org.camunda.bpm.engine.delegate.DelegateCaseExecution;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.camunda.bpm.engine.impl.cfg.multitenancy.TenantIdProvider;
+import org.camunda.bpm.engine.impl.cfg.multitenancy.TenantIdProviderCaseInstanceContext;
+import org.camunda.bpm.engine.impl.cfg.multitenancy.TenantIdProviderHistoricDecisionInstanceContext;
+import org.camunda.bpm.engine.impl.cfg.multitenancy.TenantIdProviderProcessInstanceContext;
+
+/**
+ * Assigns instances of shared (tenant-less) definitions to the {@link ScenarioTenant} of the current thread, or to the
+ * scenario tenant of the calling execution (e.g. a call activity executed by the job executor), falls back to the
+ * previously configured provider otherwise.
+ */
+public class ScenarioTenantIdProvider implements TenantIdProvider {
+
+  private final ScenarioTenant scenarioTenant;
+
+  private final TenantIdProvider delegate;
+
+  public ScenarioTenantIdProvider(ScenarioTenant scenarioTenant, TenantIdProvider delegate) {
+    this.scenarioTenant = scenarioTenant;
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String provideTenantIdForProcessInstance(TenantIdProviderProcessInstanceContext ctx) {
+    if (scenarioTenant.isScoped()) {
+      return scenarioTenant.getTenantId();
+    }
+    String callerTenantId = getScenarioTenantId(ctx.getSuperExecution(), ctx.getSuperCaseExecution());
+    if (callerTenantId != null) {
+      return callerTenantId;
+    }
+    return delegate != null ? delegate.provideTenantIdForProcessInstance(ctx) : null;
+  }
+
+  @Override
+  public String provideTenantIdForCaseInstance(TenantIdProviderCaseInstanceContext ctx) {
+    if (scenarioTenant.isScoped()) {
+      return scenarioTenant.getTenantId();
+    }
+    String callerTenantId = getScenarioTenantId(ctx.getSuperExecution(), ctx.getSuperCaseExecution());
+    if (callerTenantId != null) {
+      return callerTenantId;
+    }
+    return delegate != null ? delegate.provideTenantIdForCaseInstance(ctx) : null;
+  }
+
+  @Override
+  public String provideTenantIdForHistoricDecisionInstance(TenantIdProviderHistoricDecisionInstanceContext ctx) {
+    if (scenarioTenant.isScoped()) {
+      return scenarioTenant.getTenantId();
+    }
+    String callerTenantId = getScenarioTenantId(ctx.getExecution(), ctx.getCaseExecution());
+    if (callerTenantId != null) {
+      return callerTenantId;
+    }
+    return delegate != null ? delegate.provideTenantIdForHistoricDecisionInstance(ctx) : null;
+  }
+
+  private String getScenarioTenantId(DelegateExecution execution, DelegateCaseExecution caseExecution) {
+    String tenantId = execution != null ? execution.getTenantId()
+        : caseExecution != null ? caseExecution.getTenantId()
+        : null;
+    return scenarioTenant.isScenarioTenantId(tenantId) ? tenantId : null;
+  }
+
+}
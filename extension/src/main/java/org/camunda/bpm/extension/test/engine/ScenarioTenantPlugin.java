@@ -0,0 +1,25 @@
+package org.camunda.bpm.extension.test.engine;
+
+import org.camunda.bpm.engine.impl.cfg.AbstractProcessEnginePlugin;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the {@link ScenarioTenantIdProvider} if tenant isolation is enabled.
+ */
+@Component
+public class ScenarioTenantPlugin extends AbstractProcessEnginePlugin {
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Override
+  public void preInit(ProcessEngineConfigurationImpl processEngineConfiguration) {
+    if (scenarioTenant.isEnabled()) {
+      processEngineConfiguration.setTenantIdProvider(
+          new ScenarioTenantIdProvider(scenarioTenant, processEngineConfiguration.getTenantIdProvider()));
+    }
+  }
+
+}
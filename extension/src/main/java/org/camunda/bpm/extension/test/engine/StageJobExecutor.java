@@ -0,0 +1,58 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Executor shared by all stages for jobs scheduled by a scenario (see {@code AbstractProcessStage.scheduleJob}).
+ * <p>
+ * Uses virtual threads if the runtime supports them (Java 21+), a cached pool of daemon threads otherwise. Jobs
+ * inherit the {@link ScenarioTenant} of the scheduling thread.
+ */
+@Component
+public class StageJobExecutor {
+
+  private static final Logger log = LoggerFactory.getLogger(StageJobExecutor.class);
+
+  private static final String THREAD_NAME_PREFIX = "stage-job-";
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  private final ExecutorService executorService = newExecutorService();
+
+  public <T> Future<T> submit(Callable<T> job) {
+    return executorService.submit(scenarioTenant.wrap(job));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executorService.shutdownNow();
+  }
+
+  private static ExecutorService newExecutorService() {
+    try {
+      // Java 21+, the extension is built for Java 17
+      var executorService = (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+      log.info("Scheduled stage jobs are executed on virtual threads");
+      return executorService;
+    } catch (ReflectiveOperationException ex) {
+      var threadFactory = new CustomizableThreadFactory(THREAD_NAME_PREFIX);
+      threadFactory.setDaemon(true);
+      return Executors.newCachedThreadPool(threadFactory);
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.sql.Statement;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * MyBatis plugin counting the SQL statements executed by the engine. Statements added to a JDBC batch are counted
+ * one by one.
+ */
+@Intercepts({
+    @Signature(type = StatementHandler.class, method = "query", args = { Statement.class, ResultHandler.class }),
+    @Signature(type = StatementHandler.class, method = "update", args = { Statement.class }),
+    @Signature(type = StatementHandler.class, method = "batch", args = { Statement.class })
+})
+public class StatementCountingInterceptor implements Interceptor {
+
+  private final EngineStatistics engineStatistics;
+
+  public StatementCountingInterceptor(EngineStatistics engineStatistics) {
+    this.engineStatistics = engineStatistics;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    StatementHandler statementHandler = (StatementHandler) invocation.getTarget();
+    engineStatistics.statementExecuted(statementHandler.getBoundSql().getSql());
+    return invocation.proceed();
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * SQL statements executed by one thread, counted by statement text (without parameter values), so repeated
+ * executions of the same query (N+1) stand out.
+ */
+public class StatementLog {
+
+  private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+  private int count;
+
+  // log of the enclosing call, which logs the statements as well
+  private final StatementLog outer;
+
+  public StatementLog() {
+    this(null);
+  }
+
+  StatementLog(StatementLog outer) {
+    this.outer = outer;
+  }
+
+  StatementLog getOuter() {
+    return outer;
+  }
+
+  void add(String sql) {
+    executions.merge(normalize(sql), 1, Integer::sum);
+    count++;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * @return Statements executed more than the given number of times, with their count.
+   */
+  public Map<String, Integer> getRepeatedStatements(int maxRepetitions) {
+    Map<String, Integer> repeated = new LinkedHashMap<>();
+    executions.forEach((sql, executionCount) -> {
+      if (executionCount > maxRepetitions) {
+        repeated.put(sql, executionCount);
+      }
+    });
+    return repeated;
+  }
+
+  private static String normalize(String sql) {
+    return sql.replaceAll("\\s+", " ").trim();
+  }
+
+}
@@ -0,0 +1,84 @@
+package org.camunda.bpm.extension.test.engine;
+
+import java.util.Date;
+
+import org.camunda.bpm.engine.ProcessEngineConfiguration;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.runtime.Job;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Discrete-event clock: instead of stepping the engine clock and waiting for the job executor, the clock jumps to the
+ * due date of the next timer job, which is executed in the calling thread, until the target time is reached.
+ * <p>
+ * Jobs are executed ordered by due date and priority. Without tenant isolation the job executor is stopped meanwhile,
+ * so the order is deterministic.
+ */
+@Component
+public class VirtualClock {
+
+  private static final Logger log = LoggerFactory.getLogger(VirtualClock.class);
+
+  @Autowired
+  private ProcessEngineConfiguration processEngineConfiguration;
+
+  @Autowired
+  private InlineJobExecutor inlineJobExecutor;
+
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  /**
+   * Advances the engine clock to the given time, executing all jobs becoming due on the way.
+   *
+   * @return Number of executed jobs.
+   */
+  public int advanceTo(Date targetTime) {
+    var startTime = System.currentTimeMillis();
+    JobExecutor jobExecutor = ((ProcessEngineConfigurationImpl) processEngineConfiguration).getJobExecutor();
+    boolean stopJobExecutor = !scenarioTenant.isEnabled() && jobExecutor != null && jobExecutor.isActive();
+    if (stopJobExecutor) {
+      jobExecutor.shutdown();
+    }
+    int executedJobs = 0;
+    try {
+      Job job;
+      while ((job = nextJob(targetTime)) != null) {
+        // checked before the clock moves, so the job executor started again doesn't find the job due
+        inlineJobExecutor.checkExecutions(++executedJobs);
+        if (job.getDuedate() != null && job.getDuedate().after(ClockUtil.getCurrentTime())) {
+          ClockUtil.setCurrentTime(job.getDuedate());
+        }
+        inlineJobExecutor.executeJob(job);
+      }
+      if (targetTime.after(ClockUtil.getCurrentTime())) {
+        ClockUtil.setCurrentTime(targetTime);
+      }
+    } finally {
+      if (stopJobExecutor) {
+        jobExecutor.start();
+      }
+    }
+    log.info("Advanced clock to {} executing {} job(s), time used {} ms",
+        targetTime, executedJobs, System.currentTimeMillis() - startTime);
+    return executedJobs;
+  }
+
+  private Job nextJob(Date targetTime) {
+    // jobs due now (e.g. asynchronous continuations) precede the next timer
+    Job job = InlineJobExecutor.first(inlineJobExecutor.dueJobs(null));
+    if (job == null) {
+      job = InlineJobExecutor.first(inlineJobExecutor.jobQuery()
+          .timers()
+          .withRetriesLeft()
+          .duedateLowerThan(new Date(targetTime.getTime() + 1)));
+    }
+    return job;
+  }
+
+}
@@ -0,0 +1,59 @@
+package org.camunda.bpm.extension.test.metrics;
+
+import java.lang.reflect.Modifier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times all public calls of the {@link WorkflowTestHelper} and checks their {@link StatementBudget}, see
+ * {@link StepMetrics}.
+ */
+@Component
+public class HelperTimingPostProcessor implements BeanPostProcessor {
+
+  private final boolean enabled;
+
+  private final ObjectProvider<StepMetrics> stepMetrics;
+
+  // constructor injection, post processors are created before field injection is available
+  public HelperTimingPostProcessor(Environment environment, ObjectProvider<StepMetrics> stepMetrics) {
+    this.enabled = environment.getProperty("camunda.bpm.test.metrics.enabled", Boolean.class, true)
+        || environment.getProperty("camunda.bpm.test.sql-budget.max-statements-per-call", Integer.class, 0) > 0
+        || environment.getProperty("camunda.bpm.test.sql-budget.max-repetitions-per-call", Integer.class, 0) > 0;
+    this.stepMetrics = stepMetrics;
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String beanName) {
+    if (!enabled || !(bean instanceof WorkflowTestHelper)) {
+      return bean;
+    }
+    ProxyFactory proxyFactory = new ProxyFactory(bean);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice((MethodInterceptor) this::invoke);
+    return proxyFactory.getProxy();
+  }
+
+  private Object invoke(MethodInvocation invocation) throws Throwable {
+    if (!Modifier.isPublic(invocation.getMethod().getModifiers())) {
+      return invocation.proceed();
+    }
+    return stepMetrics.getObject().recordHelperCall(invocation.getMethod(), invocation.getArguments(), () -> {
+      try {
+        return invocation.proceed();
+      } catch (Exception | Error ex) {
+        throw ex;
+      } catch (Throwable ex) {
+        throw new IllegalStateException(ex);
+      }
+    });
+  }
+
+}
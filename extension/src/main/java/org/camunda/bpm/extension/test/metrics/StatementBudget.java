@@ -0,0 +1,95 @@
+package org.camunda.bpm.extension.test.metrics;
+
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.camunda.bpm.extension.test.engine.StatementLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opt-in budget of SQL statements per stage step and per {@code WorkflowTestHelper} call, counted on the thread
+ * executing the step or call (i.e. without the job executor):
+ *
+ * <pre>
+ * camunda.bpm.test.sql-budget.max-statements-per-step=50
+ * camunda.bpm.test.sql-budget.max-repetitions-per-step=10
+ * camunda.bpm.test.sql-budget.max-statements-per-call=20
+ * camunda.bpm.test.sql-budget.max-repetitions-per-call=5
+ * camunda.bpm.test.sql-budget.fail=true
+ * </pre>
+ *
+ * The repetitions detect N+1 queries: the same statement executed more often than allowed within one step or call.
+ * A step or call exceeding the budget is logged as warning, or fails if {@code fail} is set. The helper calls are
+ * checked by the proxy of the {@link HelperTimingPostProcessor}.
+ */
+@Component
+public class StatementBudget {
+
+  private static final Logger log = LoggerFactory.getLogger(StatementBudget.class);
+
+  @Value("${camunda.bpm.test.sql-budget.max-statements-per-step:0}")
+  private int maxStatements;
+
+  @Value("${camunda.bpm.test.sql-budget.max-repetitions-per-step:0}")
+  private int maxRepetitions;
+
+  @Value("${camunda.bpm.test.sql-budget.max-statements-per-call:0}")
+  private int maxCallStatements;
+
+  @Value("${camunda.bpm.test.sql-budget.max-repetitions-per-call:0}")
+  private int maxCallRepetitions;
+
+  @Value("${camunda.bpm.test.sql-budget.fail:false}")
+  private boolean fail;
+
+  /**
+   * @return Whether the steps have a budget.
+   */
+  public boolean isEnabled() {
+    return maxStatements > 0 || maxRepetitions > 0;
+  }
+
+  /**
+   * @return Whether the helper calls have a budget.
+   */
+  public boolean isCallBudgetEnabled() {
+    return maxCallStatements > 0 || maxCallRepetitions > 0;
+  }
+
+  public void check(String step, StatementLog statementLog) {
+    check("Step", step, statementLog, maxStatements, maxRepetitions);
+  }
+
+  public void checkCall(String call, StatementLog statementLog) {
+    check("Helper call", call, statementLog, maxCallStatements, maxCallRepetitions);
+  }
+
+  private void check(String scope, String name, StatementLog statementLog, int maxStatements, int maxRepetitions) {
+    List<String> violations = new ArrayList<>();
+    if (maxStatements > 0 && statementLog.getCount() > maxStatements) {
+      violations.add(String.format("%d SQL statements executed, budget is %d",
+          statementLog.getCount(), maxStatements));
+    }
+    if (maxRepetitions > 0) {
+      for (Map.Entry<String, Integer> statement : statementLog.getRepeatedStatements(maxRepetitions).entrySet()) {
+        violations.add(String.format("%d executions of the same statement (N+1?), budget is %d: %s",
+            statement.getValue(), maxRepetitions, statement.getKey()));
+      }
+    }
+    if (violations.isEmpty()) {
+      return;
+    }
+    String message = scope + " '" + name + "' exceeds the SQL budget:\n  " + String.join("\n  ", violations);
+    if (fail) {
+      fail(message);
+    }
+    log.warn(message);
+  }
+
+}
@@ -0,0 +1,268 @@
+package org.camunda.bpm.extension.test.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.extension.test.engine.EngineStatistics;
+import org.camunda.bpm.extension.test.engine.StatementLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.tngtech.jgiven.CurrentStep;
+import com.tngtech.jgiven.attachment.Attachment;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Micrometer timers for stage steps ({@value #STEP_TIMER}) and {@code WorkflowTestHelper} calls
+ * ({@value #HELPER_TIMER}), enabled by default ({@code camunda.bpm.test.metrics.enabled}).
+ * <p>
+ * Timers are tagged by step (method name), process definition key and activity, the latter two taken from the
+ * method parameters of that name. The timers are registered in the {@link MeterRegistry} of the application if
+ * present, and summarized when the context is closed.
+ * <p>
+ * Each step is also annotated in the JGiven report with an attachment of its wall time and the
+ * {@link EngineStatistics} of the step (commands, SQL statements, job executor wait time).
+ */
+@Component
+public class StepMetrics {
+
+  private static final Logger log = LoggerFactory.getLogger(StepMetrics.class);
+
+  public static final String STEP_TIMER = "camunda.test.step";
+  public static final String HELPER_TIMER = "camunda.test.helper";
+
+  public static final String TAG_STEP = "step";
+  public static final String TAG_PROCESS_DEFINITION_KEY = "processDefinitionKey";
+  public static final String TAG_ACTIVITY = "activity";
+
+  private static final String NONE = "none";
+
+  private static final String ATTACHMENT_TITLE = "Step metrics";
+
+  // parameter names (compiled with -parameters) of the tagged values
+  private static final Map<String, String> PARAMETER_TAGS = Map.of(
+      "processDefinitionKey", TAG_PROCESS_DEFINITION_KEY,
+      "taskDefinitionKey", TAG_ACTIVITY,
+      "activityId", TAG_ACTIVITY,
+      "activityName", TAG_ACTIVITY,
+      "activity", TAG_ACTIVITY);
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  @Autowired
+  private EngineStatistics engineStatistics;
+
+  @Autowired
+  private StatementBudget statementBudget;
+
+  // report model of the scenario executed by the thread
+  private final ThreadLocal<CurrentStep> currentStep = new ThreadLocal<>();
+
+  // steps calling steps of the thread, the outermost one annotates the step of the report
+  private final ThreadLocal<Integer> stepDepth = ThreadLocal.withInitial(() -> 0);
+
+  @Value("${camunda.bpm.test.metrics.enabled:true}")
+  private boolean enabled;
+
+  @PostConstruct
+  public void init() {
+    if (meterRegistry == null) {
+      meterRegistry = new SimpleMeterRegistry();
+    }
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return Whether stage steps have to be intercepted at all, for timing or for the {@link StatementBudget}.
+   */
+  public boolean isStepInterceptionEnabled() {
+    return enabled || statementBudget.isEnabled();
+  }
+
+  public MeterRegistry getMeterRegistry() {
+    return meterRegistry;
+  }
+
+  public void bindCurrentStep(CurrentStep step) {
+    currentStep.set(step);
+  }
+
+  public void unbindCurrentStep() {
+    currentStep.remove();
+    stepDepth.remove();
+  }
+
+  /**
+   * Times a stage step, annotates it in the report and checks its {@link StatementBudget}.
+   */
+  public <T> T recordStep(Method method, Object[] arguments, Callable<T> call) throws Exception {
+    if (statementBudget.isEnabled()) {
+      StatementLog statementLog = engineStatistics.startStatementLog();
+      if (statementLog != null) {
+        try {
+          T result = recordStepTime(method, arguments, call);
+          statementBudget.check(method.getName(), statementLog);
+          return result;
+        } finally {
+          engineStatistics.stopStatementLog();
+        }
+      }
+    }
+    return recordStepTime(method, arguments, call);
+  }
+
+  /**
+   * Times a {@code WorkflowTestHelper} call and checks its {@link StatementBudget}.
+   */
+  public <T> T recordHelperCall(Method method, Object[] arguments, Callable<T> call) throws Exception {
+    if (statementBudget.isCallBudgetEnabled()) {
+      // within the log of the step, if any
+      StatementLog statementLog = engineStatistics.startInnerStatementLog();
+      try {
+        T result = record(HELPER_TIMER, method, arguments, call);
+        statementBudget.checkCall(method.getName(), statementLog);
+        return result;
+      } finally {
+        engineStatistics.stopStatementLog();
+      }
+    }
+    return record(HELPER_TIMER, method, arguments, call);
+  }
+
+  private <T> T recordStepTime(Method method, Object[] arguments, Callable<T> call) throws Exception {
+    if (!enabled) {
+      return call.call();
+    }
+    long startTime = System.nanoTime();
+    EngineStatistics.Snapshot statistics = engineStatistics.snapshot();
+    int depth = stepDepth.get();
+    stepDepth.set(depth + 1);
+    try {
+      return record(STEP_TIMER, method, arguments, call);
+    } finally {
+      stepDepth.set(depth);
+      // an attachment, comments of the step are left to the test
+      CurrentStep step = currentStep.get();
+      if (depth == 0 && step != null) {
+        step.addAttachment(Attachment.plainText(
+            describe(System.nanoTime() - startTime, engineStatistics.snapshot().since(statistics)))
+            .withTitle(ATTACHMENT_TITLE));
+      }
+    }
+  }
+
+  private static String describe(long nanos, EngineStatistics.Snapshot statistics) {
+    return String.format("%d ms, %d command(s), %d SQL statement(s), job executor wait %d ms",
+        TimeUnit.NANOSECONDS.toMillis(nanos),
+        statistics.getCommands(),
+        statistics.getStatements(),
+        statistics.getJobWaitTime().toMillis());
+  }
+
+  public <T> T record(String timerName, Method method, Object[] arguments, Callable<T> call) throws Exception {
+    if (!enabled) {
+      return call.call();
+    }
+    long startTime = System.nanoTime();
+    try {
+      return call.call();
+    } finally {
+      timer(timerName, method, arguments).record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Timer timer(String timerName, Method method, Object[] arguments) {
+    String processDefinitionKey = NONE;
+    String activity = NONE;
+    Parameter[] parameters = method.getParameters();
+    for (int index = 0; index < parameters.length && index < arguments.length; index++) {
+      String tag = PARAMETER_TAGS.get(parameters[index].getName());
+      if (tag != null && arguments[index] instanceof String value) {
+        if (TAG_PROCESS_DEFINITION_KEY.equals(tag)) {
+          processDefinitionKey = value;
+        } else {
+          activity = value;
+        }
+      }
+    }
+    return Timer.builder(timerName)
+        .tags(Tags.of(
+            TAG_STEP, method.getName(),
+            TAG_PROCESS_DEFINITION_KEY, processDefinitionKey,
+            TAG_ACTIVITY, activity))
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return All timers of the run so far, slowest (total time) first.
+   */
+  public String report() {
+    StringBuilder builder = new StringBuilder(String.format("%-60s %8s %10s %8s %8s %8s %8s%n",
+        "step", "count", "total ms", "mean ms", "p50 ms", "p99 ms", "max ms"));
+    meterRegistry.find(STEP_TIMER).timers().stream()
+        .sorted(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.MILLISECONDS)).reversed())
+        .forEach(timer -> builder.append(format(timer)));
+    meterRegistry.find(HELPER_TIMER).timers().stream()
+        .sorted(Comparator.comparingDouble((Timer timer) -> timer.totalTime(TimeUnit.MILLISECONDS)).reversed())
+        .forEach(timer -> builder.append(format(timer)));
+    return builder.toString();
+  }
+
+  private String format(Timer timer) {
+    HistogramSnapshot snapshot = timer.takeSnapshot();
+    String name = timer.getId().getName().substring(timer.getId().getName().lastIndexOf('.') + 1)
+        + " " + timer.getId().getTag(TAG_STEP)
+        + tag(timer, TAG_PROCESS_DEFINITION_KEY)
+        + tag(timer, TAG_ACTIVITY);
+    return String.format("%-60s %8d %10.1f %8.1f %8.1f %8.1f %8.1f%n",
+        name,
+        snapshot.count(),
+        snapshot.total(TimeUnit.MILLISECONDS),
+        snapshot.mean(TimeUnit.MILLISECONDS),
+        percentile(snapshot, 0.5),
+        percentile(snapshot, 0.99),
+        snapshot.max(TimeUnit.MILLISECONDS));
+  }
+
+  private static String tag(Timer timer, String key) {
+    String value = timer.getId().getTag(key);
+    return NONE.equals(value) ? "" : " " + value;
+  }
+
+  private static double percentile(HistogramSnapshot snapshot, double percentile) {
+    for (ValueAtPercentile value : snapshot.percentileValues()) {
+      if (value.percentile() == percentile) {
+        return value.value(TimeUnit.MILLISECONDS);
+      }
+    }
+    return Double.NaN;
+  }
+
+  @PreDestroy
+  public void logReport() {
+    if (enabled && !meterRegistry.find(STEP_TIMER).timers().isEmpty()) {
+      log.info("Step timings:\n{}", report());
+    }
+  }
+
+}
@@ -0,0 +1,56 @@
+package org.camunda.bpm.extension.test.metrics;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import com.tngtech.jgiven.Stage;
+import com.tngtech.jgiven.impl.intercept.StepInterceptor;
+import com.tngtech.jgiven.integration.spring.SpringStageCreator;
+
+/**
+ * Replaces the {@link SpringStageCreator} of JGiven (looked up by type by {@code SpringScenarioTest}) to time
+ * and annotate every step of the stages it creates.
+ * <p>
+ * The step is recorded within the step interceptor of JGiven, so a step exceeding the {@link StatementBudget}
+ * fails in the report.
+ */
+@Primary
+@Component
+public class StepTimingStageCreator extends SpringStageCreator {
+
+  @Autowired
+  private StepMetrics stepMetrics;
+
+  @Override
+  public <T> T createStage(Class<T> stageClass, StepInterceptor stepInterceptor) {
+    if (!stepMetrics.isStepInterceptionEnabled()) {
+      return super.createStage(stageClass, stepInterceptor);
+    }
+    return super.createStage(stageClass, (receiver, method, parameters, invoker) -> isStep(receiver, method)
+        ? stepInterceptor.intercept(receiver, method, parameters,
+            () -> stepMetrics.recordStep(method, parameters, () -> proceed(invoker)))
+        : stepInterceptor.intercept(receiver, method, parameters, invoker));
+  }
+
+  private static Object proceed(StepInterceptor.Invoker invoker) throws Exception {
+    try {
+      return invoker.proceed();
+    } catch (Exception | Error ex) {
+      throw ex;
+    } catch (Throwable ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  // steps are public methods of the stage classes returning the stage, not the introduction words of JGiven
+  private static boolean isStep(Object receiver, Method method) {
+    return Modifier.isPublic(method.getModifiers())
+        && method.getReturnType().isInstance(receiver)
+        && !method.getDeclaringClass().isAssignableFrom(Stage.class);
+  }
+
+}
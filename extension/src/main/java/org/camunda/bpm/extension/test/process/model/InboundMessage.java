@@ -0,0 +1,42 @@
+package org.camunda.bpm.extension.test.process.model;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Message to correlate, e.g. of a recorded inbound event stream.
+ */
+public class InboundMessage implements Serializable {
+
+  private final String messageName;
+  private final String businessKey;
+  private final Map<String, Object> payload;
+
+  public InboundMessage(String messageName, String businessKey, Map<String, Object> payload) {
+    this.messageName = messageName;
+    this.businessKey = businessKey;
+    this.payload = payload;
+  }
+
+  public static InboundMessage of(String messageName, String businessKey, Map<String, Object> payload) {
+    return new InboundMessage(messageName, businessKey, payload);
+  }
+
+  public String getMessageName() {
+    return messageName;
+  }
+
+  public String getBusinessKey() {
+    return businessKey;
+  }
+
+  public Map<String, Object> getPayload() {
+    return payload;
+  }
+
+  @Override
+  public String toString() {
+    return messageName + "(" + businessKey + ")";
+  }
+
+}
@@ -0,0 +1,123 @@
+package org.camunda.bpm.extension.test.process.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+
+/**
+ * Variables, whose serialized values are deserialized on first access only.
+ */
+public class LazyVariableMap extends AbstractMap<String, Object> {
+
+  private final Map<String, Object> variables;
+
+  private final Map<String, Object> deserializedVariables = new HashMap<>();
+
+  private final Function<String, Object> deserializer;
+
+  /**
+   * @param variables
+   *          variables, serialized values as {@link SerializableValue}
+   * @param deserializer
+   *          deserializes the value of a variable by name
+   */
+  public LazyVariableMap(Map<String, Object> variables, Function<String, Object> deserializer) {
+    this.variables = variables;
+    this.deserializer = deserializer;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return variables.containsKey(key);
+  }
+
+  @Override
+  public Object get(Object key) {
+    Object value = variables.get(key);
+    if (isSerialized(value)) {
+      return deserializedVariables.computeIfAbsent((String) key, deserializer);
+    }
+    return value;
+  }
+
+  /**
+   * @return The previous value, without deserialization.
+   */
+  @Override
+  public Object put(String key, Object value) {
+    // a serialized value put into the map is returned as it is
+    deserializedVariables.put(key, value);
+    return variables.put(key, value);
+  }
+
+  /**
+   * @return The previous value, without deserialization.
+   */
+  @Override
+  public Object remove(Object key) {
+    deserializedVariables.remove(key);
+    return variables.remove(key);
+  }
+
+  /**
+   * @return The value without deserialization, i.e. {@link SerializableValue} for serialized values.
+   */
+  public Object getSerialized(String key) {
+    return variables.get(key);
+  }
+
+  @Override
+  public int size() {
+    return variables.size();
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+    return new AbstractSet<>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+        Iterator<String> keys = variables.keySet().iterator();
+        return new Iterator<>() {
+
+          @Override
+          public boolean hasNext() {
+            return keys.hasNext();
+          }
+
+          private String key;
+
+          @Override
+          public Entry<String, Object> next() {
+            key = keys.next();
+            return new SimpleImmutableEntry<>(key, get(key));
+          }
+
+          @Override
+          public void remove() {
+            keys.remove();
+            deserializedVariables.remove(key);
+          }
+
+        };
+      }
+
+      @Override
+      public int size() {
+        return variables.size();
+      }
+
+    };
+  }
+
+  private static boolean isSerialized(Object value) {
+    return value instanceof SerializableValue serializableValue && !serializableValue.isDeserialized();
+  }
+
+}
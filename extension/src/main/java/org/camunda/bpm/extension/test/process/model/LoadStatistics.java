@@ -0,0 +1,120 @@
+package org.camunda.bpm.extension.test.process.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Results of a load run, see {@code ProcessLoad}. Latencies are recorded per step of the script, by all load
+ * threads.
+ */
+public class LoadStatistics {
+
+  private final int instances;
+
+  private final Map<String, List<Long>> stepLatencies = new LinkedHashMap<>();
+
+  private final AtomicInteger completedInstances = new AtomicInteger();
+
+  private final AtomicInteger failedInstances = new AtomicInteger();
+
+  private final AtomicInteger optimisticLockingFailures = new AtomicInteger();
+
+  private Duration duration = Duration.ZERO;
+
+  public LoadStatistics(int instances) {
+    this.instances = instances;
+  }
+
+  public void record(String step, long latencyNanos) {
+    synchronized (stepLatencies) {
+      stepLatencies.computeIfAbsent(step, key -> new ArrayList<>()).add(latencyNanos);
+    }
+  }
+
+  public void instanceCompleted() {
+    completedInstances.incrementAndGet();
+  }
+
+  public void instanceFailed() {
+    failedInstances.incrementAndGet();
+  }
+
+  public void optimisticLockingFailure() {
+    optimisticLockingFailures.incrementAndGet();
+  }
+
+  public void setDuration(Duration duration) {
+    this.duration = duration;
+  }
+
+  public int getInstances() {
+    return instances;
+  }
+
+  public int getCompletedInstances() {
+    return completedInstances.get();
+  }
+
+  public int getFailedInstances() {
+    return failedInstances.get();
+  }
+
+  public int getOptimisticLockingFailures() {
+    return optimisticLockingFailures.get();
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  /**
+   * @return Completed instances per second.
+   */
+  public double getThroughput() {
+    return duration.isZero() ? 0 : getCompletedInstances() * 1000d / duration.toMillis();
+  }
+
+  public List<String> getSteps() {
+    synchronized (stepLatencies) {
+      return new ArrayList<>(stepLatencies.keySet());
+    }
+  }
+
+  /**
+   * @param percentile
+   *          e.g. 50 or 99
+   * @return Latency of the step (nearest rank), zero if the step was never executed.
+   */
+  public Duration getLatency(String step, double percentile) {
+    long[] latencies;
+    synchronized (stepLatencies) {
+      latencies = stepLatencies.getOrDefault(step, List.of()).stream().mapToLong(Long::longValue).toArray();
+    }
+    if (latencies.length == 0) {
+      return Duration.ZERO;
+    }
+    Arrays.sort(latencies);
+    int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+    return Duration.ofNanos(latencies[Math.max(rank - 1, 0)]);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder()
+        .append(String.format("instances: %d, completed: %d, failed: %d, optimistic locking failures: %d%n",
+            instances, getCompletedInstances(), getFailedInstances(), getOptimisticLockingFailures()))
+        .append(String.format("duration: %d ms, throughput: %.1f instances/s%n",
+            duration.toMillis(), getThroughput()));
+    for (String step : getSteps()) {
+      builder.append(String.format("%s: p50 %d ms, p99 %d ms%n",
+          step, getLatency(step, 50).toMillis(), getLatency(step, 99).toMillis()));
+    }
+    return builder.toString();
+  }
+
+}
@@ -0,0 +1,126 @@
+package org.camunda.bpm.extension.test.process.model;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.CatchEvent;
+import org.camunda.bpm.model.bpmn.instance.FlowNode;
+import org.camunda.bpm.model.bpmn.instance.SequenceFlow;
+import org.camunda.bpm.model.bpmn.instance.TimerEventDefinition;
+import org.camunda.bpm.model.xml.instance.ModelElementInstance;
+
+/**
+ * Lookup tables of a process definition, computed once from its BPMN model.
+ */
+public class ProcessModelIndex {
+
+  private final Map<String, Activity> activities = new LinkedHashMap<>();
+
+  private final Map<String, Set<String>> activityIdsByName = new HashMap<>();
+
+  public ProcessModelIndex(BpmnModelInstance modelInstance) {
+    for (FlowNode flowNode : modelInstance.getModelElementsByType(FlowNode.class)) {
+      Activity activity = new Activity(flowNode);
+      activities.put(activity.getId(), activity);
+      if (activity.getName() != null) {
+        activityIdsByName.computeIfAbsent(activity.getName(), name -> new HashSet<>()).add(activity.getId());
+      }
+    }
+  }
+
+  public Activity getActivity(String activityId) {
+    return activities.get(activityId);
+  }
+
+  public Collection<Activity> getActivities() {
+    return activities.values();
+  }
+
+  /**
+   * @param activity
+   *          activity id or name
+   * @return Ids of the activities with this id or name, empty if the model has none.
+   */
+  public Set<String> getActivityIds(String activity) {
+    Set<String> activityIds = new HashSet<>(activityIdsByName.getOrDefault(activity, Set.of()));
+    if (activities.containsKey(activity)) {
+      activityIds.add(activity);
+    }
+    return activityIds;
+  }
+
+  public static class Activity {
+
+    private final String id;
+    private final String name;
+    private final String type;
+    private final List<String> incoming;
+    private final List<String> outgoing;
+    private final List<String> timers;
+
+    Activity(FlowNode flowNode) {
+      this.id = flowNode.getId();
+      this.name = flowNode.getName();
+      this.type = flowNode.getElementType().getTypeName();
+      this.incoming = flowNode.getIncoming().stream().map(SequenceFlow::getId).collect(toList());
+      this.outgoing = flowNode.getOutgoing().stream().map(SequenceFlow::getId).collect(toList());
+      this.timers = flowNode instanceof CatchEvent catchEvent
+          ? catchEvent.getEventDefinitions().stream()
+              .filter(TimerEventDefinition.class::isInstance)
+              .map(TimerEventDefinition.class::cast)
+              .flatMap(timer -> Stream.of(timer.getTimeDate(), timer.getTimeDuration(), timer.getTimeCycle()))
+              .filter(Objects::nonNull)
+              .map(ModelElementInstance::getTextContent)
+              .collect(toList())
+          : List.of();
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * @return BPMN element type, e.g. {@code userTask}.
+     */
+    public String getType() {
+      return type;
+    }
+
+    /**
+     * @return Ids of the incoming sequence flows.
+     */
+    public List<String> getIncoming() {
+      return incoming;
+    }
+
+    /**
+     * @return Ids of the outgoing sequence flows.
+     */
+    public List<String> getOutgoing() {
+      return outgoing;
+    }
+
+    /**
+     * @return Expressions of the timer definitions (date, duration or cycle).
+     */
+    public List<String> getTimers() {
+      return timers;
+    }
+
+  }
+
+}
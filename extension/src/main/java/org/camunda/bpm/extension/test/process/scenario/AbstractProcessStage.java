@@ -4,20 +4,37 @@ import static org.camunda.bpm.extension.test.utils.DateUtils.dateInFutureFrom;
 
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
-import org.camunda.bpm.engine.impl.test.TestHelper;
+import org.camunda.bpm.extension.test.engine.InlineJobExecutor;
+import org.camunda.bpm.extension.test.engine.JobExecutionLatch;
+import org.camunda.bpm.extension.test.engine.ScenarioTenant;
+import org.camunda.bpm.extension.test.engine.StageJobExecutor;
+import org.camunda.bpm.extension.test.engine.VirtualClock;
+import org.camunda.bpm.extension.test.metrics.StepMetrics;
 import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import com.tngtech.jgiven.CurrentStep;
 import com.tngtech.jgiven.Stage;
+import com.tngtech.jgiven.annotation.AfterScenario;
+import com.tngtech.jgiven.annotation.As;
+import com.tngtech.jgiven.annotation.BeforeStage;
+import com.tngtech.jgiven.annotation.ExpectedScenarioState;
+import com.tngtech.jgiven.annotation.ScenarioState;
 import com.tngtech.jgiven.annotation.SingleQuoted;
+import com.tngtech.jgiven.attachment.Attachment;
 
 public abstract class AbstractProcessStage<SELF extends AbstractProcessStage<SELF>> extends Stage<SELF> {
 
@@ -26,45 +43,138 @@ public abstract class AbstractProcessStage<SELF extends AbstractProcessStage<SEL
   @Autowired
   protected WorkflowTestHelper workflowHelper;
 
-  private final ExecutorService executorService = Executors.newFixedThreadPool(10);
+  @Autowired
+  protected JobExecutionLatch jobExecutionLatch;
+
+  @Autowired
+  protected ScenarioTenant scenarioTenant;
+
+  @Autowired
+  private StageJobExecutor stageJobExecutor;
+
+  @Autowired
+  private StepMetrics stepMetrics;
+
+  @Autowired
+  private VirtualClock virtualClock;
+
+  @Autowired
+  private InlineJobExecutor inlineJobExecutor;
+
+  @ExpectedScenarioState
+  protected CurrentStep currentStep;
+
+  // jobs scheduled by any stage of the scenario
+  @ScenarioState
+  private List<Future<?>> scheduledJobs = Collections.synchronizedList(new ArrayList<>());
+
+  @BeforeStage(repeatable = true)
+  public void bindCurrentStep() {
+    // step annotations in the report, see StepMetrics
+    stepMetrics.bindCurrentStep(currentStep);
+  }
+
+  @AfterScenario
+  public void unbindCurrentStep() {
+    stepMetrics.unbindCurrentStep();
+  }
 
   public SELF test_case(@SingleQuoted String testCase) {
     return self();
   }
 
+  @As("the step timings are reported")
+  public SELF step_timings_reported() {
+    if (currentStep != null) {
+      currentStep.addAttachment(Attachment.plainText(stepMetrics.report()).withTitle("Step timings"));
+    }
+    return self();
+  }
+
+  @As("all scheduled jobs are completed")
+  public SELF scheduled_jobs_completed() {
+    awaitScheduledJobs();
+    return self();
+  }
+
   // -- Jobs
 
   protected void executeJob(Callable<SELF> job) {
-    doJob(job, false);
+    try {
+      job.call();
+    } catch (Exception ex) {
+      log.error("Job execution failed", ex);
+    }
   }
 
-  protected void scheduleJob(Callable<SELF> job) {
-    doJob(job, true);
+  protected Future<SELF> scheduleJob(Callable<SELF> job) {
+    Future<SELF> future = stageJobExecutor.submit(job);
+    scheduledJobs.add(future);
+    return future;
   }
 
-  private void doJob(Callable<SELF> job, boolean async) {
-    try {
-      if (async) {
-        executorService.submit(job);
-      } else {
-        job.call();
+  protected void awaitScheduledJobs() {
+    awaitScheduledJobs(60 * 1000L);
+  }
+
+  protected void awaitScheduledJobs(long maxMillisToWait) {
+    long deadline = System.currentTimeMillis() + maxMillisToWait;
+    for (Future<?> future : drainScheduledJobs()) {
+      try {
+        future.get(Math.max(deadline - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS);
+      } catch (ExecutionException ex) {
+        throw new IllegalStateException("Scheduled job failed", ex.getCause());
+      } catch (TimeoutException ex) {
+        throw new IllegalStateException("time limit of " + maxMillisToWait + " was exceeded", ex);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Interrupted while waiting for scheduled jobs", ex);
       }
-    } catch (Exception ex) {
-      log.error("Job execution failed", ex);
     }
   }
 
+  protected void cancelScheduledJobs() {
+    drainScheduledJobs().forEach(future -> future.cancel(true));
+  }
+
+  private List<Future<?>> drainScheduledJobs() {
+    synchronized (scheduledJobs) {
+      List<Future<?>> futures = new ArrayList<>(scheduledJobs);
+      scheduledJobs.clear();
+      return futures;
+    }
+  }
+
+  /**
+   * Waits for the job executor, or executes the due jobs in the test thread if inline job execution is enabled.
+   */
   protected void waitForJobExecutorToProcessAllJobs() {
-    waitForJobExecutorToProcessAllJobs(60 * 1000L, 25L);
+    if (inlineJobExecutor.isEnabled()) {
+      inlineJobExecutor.executeDueJobs(null);
+    } else {
+      waitForJobExecutorToProcessAllJobs(60 * 1000L, 25L);
+    }
   }
 
   private void waitForJobExecutorToProcessAllJobs(long maxMillisToWait, long intervalMillis) {
-    TestHelper.waitForJobExecutorToProcessAllJobs(
+    jobExecutionLatch.waitForJobExecutorToProcessAllJobs(
         (ProcessEngineConfigurationImpl) workflowHelper.getProcessEngineConfiguration(),
         maxMillisToWait,
         intervalMillis);
   }
 
+  protected void waitForJobExecutorToProcessJobs(String processInstanceId) {
+    if (inlineJobExecutor.isEnabled()) {
+      inlineJobExecutor.executeDueJobs(processInstanceId);
+    } else {
+      jobExecutionLatch.waitForJobExecutorToProcessJobs(
+          (ProcessEngineConfigurationImpl) workflowHelper.getProcessEngineConfiguration(),
+          processInstanceId,
+          60 * 1000L,
+          25L);
+    }
+  }
+
   // -- Clock
 
   protected Date incrementClock(long milliseconds, boolean waitForJobExecutorToProcessAllJobs) {
@@ -82,6 +192,22 @@ public abstract class AbstractProcessStage<SELF extends AbstractProcessStage<SEL
     return workflowHelper.getWorkflowCurrentTime();
   }
 
+  /**
+   * Advances the clock in virtual time, i.e. jumps from timer to timer executing them in the test thread, see
+   * {@link VirtualClock}.
+   */
+  protected Date advanceClock(Duration duration) {
+    Date currentTime = workflowHelper.getWorkflowCurrentTime();
+    return advanceClockTo(dateInFutureFrom(currentTime, duration.toMillis(), ChronoUnit.MILLIS));
+  }
+
+  protected Date advanceClockTo(Date targetTime) {
+    // pending asynchronous work of the previous step happens before the clock moves
+    waitForJobExecutorToProcessAllJobs();
+    virtualClock.advanceTo(targetTime);
+    return workflowHelper.getWorkflowCurrentTime();
+  }
+
   protected Date setClock(Date nextCurrentTime, boolean waitForJobExecutorToProcessAllJobs) {
     workflowHelper.setWorkflowCurrentTime(nextCurrentTime);
     if (waitForJobExecutorToProcessAllJobs) {
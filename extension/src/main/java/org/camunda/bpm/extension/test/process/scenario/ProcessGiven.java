@@ -1,9 +1,15 @@
 package org.camunda.bpm.extension.test.process.scenario;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.camunda.bpm.extension.test.engine.DatabaseSnapshot;
+import org.camunda.bpm.extension.test.engine.InlineJobExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
+
 import com.tngtech.jgiven.annotation.As;
+import com.tngtech.jgiven.annotation.BeforeScenario;
 import com.tngtech.jgiven.annotation.ProvidedScenarioState;
 import com.tngtech.jgiven.annotation.SingleQuoted;
 import com.tngtech.jgiven.integration.spring.JGivenStage;
@@ -23,6 +29,22 @@ public class ProcessGiven<SELF extends ProcessGiven<SELF>> extends AbstractProce
   @ProvidedScenarioState
   private String afterActivity;
 
+  @Autowired
+  private DatabaseSnapshot databaseSnapshot;
+
+  @Autowired
+  private InlineJobExecutor inlineJobExecutor;
+
+  @BeforeScenario
+  public void setUp() {
+    // own tenant per scenario (tenant isolation only)
+    scenarioTenant.begin();
+    // initial database state, restored after each scenario (snapshot mode only)
+    databaseSnapshot.take();
+    // started again by the process application after the application is ready (inline job execution only)
+    inlineJobExecutor.stopJobExecutor();
+  }
+
   public SELF a_process_engine() {
     return self();
   }
@@ -32,6 +54,12 @@ public class ProcessGiven<SELF extends ProcessGiven<SELF>> extends AbstractProce
     return self();
   }
 
+  @As("the current time $time")
+  public SELF the_current_time(@SingleQuoted Date time) {
+    setClock(time, false);
+    return self();
+  }
+
   public SELF a_process_model() {
     model = new HashMap<>();
     return self();
@@ -0,0 +1,251 @@
+package org.camunda.bpm.extension.test.process.scenario;
+
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.extension.test.process.model.LoadStatistics;
+import org.camunda.bpm.extension.test.report.formatter.DurationFieldFormatter;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.tngtech.jgiven.annotation.*;
+import com.tngtech.jgiven.attachment.Attachment;
+import com.tngtech.jgiven.integration.spring.JGivenStage;
+
+/**
+ * Replays a script of process steps across many process instances concurrently, e.g.
+ *
+ * <pre>
+ * load.a_load_of(100)
+ *     .with_concurrency(8)
+ *     .each_instance_is_created_by_message("TestProcess")
+ *     .each_instance_completes_task("UserTask_ReviewResults")
+ *     .the_load_is_executed()
+ *     .all_instances_completed()
+ *     .at_most_optimistic_locking_failures(0);
+ * </pre>
+ *
+ * Every step of an instance waits for the jobs of this instance, so the step latency includes the asynchronous
+ * continuations. An instance stops at its first failing step.
+ */
+@JGivenStage
+public class ProcessLoad<SELF extends ProcessLoad<SELF>> extends AbstractProcessStage<SELF> {
+
+  private static final long MAX_MILLIS_TO_WAIT = 10 * 60 * 1000L;
+
+  @FunctionalInterface
+  public interface Step {
+
+    /**
+     * @param processId
+     *          process instance of the load, null for the step creating it
+     * @return The process instance id.
+     */
+    String execute(String processId) throws Exception;
+
+  }
+
+  @ExpectedScenarioState
+  private String businessKey;
+
+  @ExpectedScenarioState
+  private Map<String, Object> model;
+
+  @ProvidedScenarioState
+  private LoadStatistics loadStatistics;
+
+  private final Map<String, Step> script = new LinkedHashMap<>();
+
+  private int instances = 1;
+
+  private int concurrency = 1;
+
+  // instances per second, unbounded if not positive
+  private double arrivalRate;
+
+  // -- Script
+
+  @As("a load of $instances process instance(s)")
+  public SELF a_load_of(int instances) {
+    this.instances = instances;
+    return self();
+  }
+
+  @As("with a concurrency of $concurrency")
+  public SELF with_concurrency(int concurrency) {
+    this.concurrency = concurrency;
+    return self();
+  }
+
+  @As("with an arrival rate of $arrivalRate instance(s) per second")
+  public SELF with_arrival_rate(double arrivalRate) {
+    this.arrivalRate = arrivalRate;
+    return self();
+  }
+
+  @As("each instance is created as process $processDefinitionKey")
+  public SELF each_instance_is_created(@SingleQuoted String processDefinitionKey) {
+    return each_instance_executes("create process " + processDefinitionKey,
+        processId -> workflowHelper.createProcess(processDefinitionKey, businessKey, instanceModel()));
+  }
+
+  @As("each instance is created by message $message")
+  public SELF each_instance_is_created_by_message(@SingleQuoted String message) {
+    return each_instance_executes("create process by message " + message,
+        processId -> workflowHelper.sendStartMessage(message, businessKey, instanceModel()).getProcessInstanceId());
+  }
+
+  @As("each instance completes task $taskDefinitionKey")
+  public SELF each_instance_completes_task(@SingleQuoted String taskDefinitionKey) {
+    return each_instance_completes_task(taskDefinitionKey, emptyMap());
+  }
+
+  @As("each instance completes task $taskDefinitionKey with $variables")
+  public SELF each_instance_completes_task(@SingleQuoted String taskDefinitionKey, Map<String, Object> variables) {
+    return each_instance_executes("complete task " + taskDefinitionKey, processId -> {
+      List<Task> tasks = workflowHelper.getTasksByKey(processId, taskDefinitionKey);
+      assertThat(tasks).hasSize(1);
+      workflowHelper.completeTask(tasks.get(0).getId(), variables);
+      return processId;
+    });
+  }
+
+  @As("each instance executes $name")
+  public SELF each_instance_executes(@SingleQuoted String name, @Hidden Step step) {
+    assertThat(script).doesNotContainKey(name);
+    script.put(name, step);
+    return self();
+  }
+
+  // -- Execution
+
+  @As("the load is executed")
+  public SELF the_load_is_executed() {
+    assertThat(script).isNotEmpty();
+
+    LoadStatistics statistics = new LoadStatistics(instances);
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("process-load-");
+    threadFactory.setDaemon(true);
+    ExecutorService executorService = Executors.newFixedThreadPool(concurrency, threadFactory);
+
+    long startTime = System.nanoTime();
+    try {
+      for (int instance = 0; instance < instances; instance++) {
+        if (arrivalRate > 0) {
+          awaitArrival(startTime + (long) (instance * TimeUnit.SECONDS.toNanos(1) / arrivalRate));
+        }
+        executorService.submit(scenarioTenant.wrap(() -> {
+          executeScript(statistics);
+          return null;
+        }));
+      }
+      executorService.shutdown();
+      assertThat(executorService.awaitTermination(MAX_MILLIS_TO_WAIT, TimeUnit.MILLISECONDS))
+          .as("load completed within %d ms", MAX_MILLIS_TO_WAIT)
+          .isTrue();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while executing the load", ex);
+    } finally {
+      executorService.shutdownNow();
+    }
+    statistics.setDuration(Duration.ofNanos(System.nanoTime() - startTime));
+
+    loadStatistics = statistics;
+    log.info("Executed load of {} instance(s) with a concurrency of {}\n{}", instances, concurrency, statistics);
+    if (currentStep != null) {
+      currentStep.addAttachment(Attachment.plainText(statistics.toString()).withTitle("Load statistics"));
+    }
+    return self();
+  }
+
+  private void executeScript(LoadStatistics statistics) {
+    String processId = null;
+    for (Map.Entry<String, Step> step : script.entrySet()) {
+      long stepStartTime = System.nanoTime();
+      try {
+        processId = step.getValue().execute(processId);
+        if (processId != null) {
+          waitForJobExecutorToProcessJobs(processId);
+        }
+      } catch (Exception | AssertionError ex) {
+        if (WorkflowTestHelper.isOptimisticLockingFailure(ex)) {
+          statistics.optimisticLockingFailure();
+        }
+        statistics.instanceFailed();
+        log.warn("Step '{}' of process {} failed: {}", step.getKey(), processId, ex.getMessage());
+        return;
+      }
+      statistics.record(step.getKey(), System.nanoTime() - stepStartTime);
+    }
+    statistics.instanceCompleted();
+  }
+
+  private Map<String, Object> instanceModel() {
+    // steps of different instances must not share a mutable model
+    return model != null ? new HashMap<>(model) : new HashMap<>();
+  }
+
+  private static void awaitArrival(long arrivalTime) throws InterruptedException {
+    long delay;
+    while ((delay = arrivalTime - System.nanoTime()) > 0) {
+      LockSupport.parkNanos(delay);
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+  }
+
+  // -- Results
+
+  @As("all instances completed the script")
+  public SELF all_instances_completed() {
+    assertThat(getLoadStatistics().getCompletedInstances()).isEqualTo(instances);
+    return self();
+  }
+
+  @As("the throughput is at least $throughput instance(s) per second")
+  public SELF the_throughput_is_at_least(double throughput) {
+    assertThat(getLoadStatistics().getThroughput()).isGreaterThanOrEqualTo(throughput);
+    return self();
+  }
+
+  @As("the p50 latency of $step is below $maxLatency")
+  public SELF the_p50_latency_is_below(@SingleQuoted String step, @DurationFieldFormatter Duration maxLatency) {
+    return the_latency_is_below(step, 50, maxLatency);
+  }
+
+  @As("the p99 latency of $step is below $maxLatency")
+  public SELF the_p99_latency_is_below(@SingleQuoted String step, @DurationFieldFormatter Duration maxLatency) {
+    return the_latency_is_below(step, 99, maxLatency);
+  }
+
+  private SELF the_latency_is_below(String step, double percentile, Duration maxLatency) {
+    assertThat(getLoadStatistics().getSteps()).contains(step);
+    assertThat(getLoadStatistics().getLatency(step, percentile)).isLessThan(maxLatency);
+    return self();
+  }
+
+  @As("at most $failures optimistic locking failure(s)")
+  public SELF at_most_optimistic_locking_failures(int failures) {
+    assertThat(getLoadStatistics().getOptimisticLockingFailures()).isLessThanOrEqualTo(failures);
+    return self();
+  }
+
+  protected LoadStatistics getLoadStatistics() {
+    assertThat(loadStatistics).as("load statistics, the load is not executed yet").isNotNull();
+    return loadStatistics;
+  }
+
+}
@@ -2,17 +2,27 @@ package org.camunda.bpm.extension.test.process.scenario;
 
 import static java.util.Collections.emptyMap;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.camunda.bpm.engine.variable.Variables.SerializationDataFormats.JSON;
 import static org.camunda.bpm.extension.test.utils.DateUtils.dateInFutureFrom;
 
 import java.time.Duration;
 import java.util.*;
 
-import org.camunda.bpm.engine.history.HistoricTaskInstance;
 import org.camunda.bpm.engine.impl.persistence.entity.MessageEntity;
 import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
 import org.camunda.bpm.engine.task.Comment;
+import org.camunda.bpm.engine.task.IdentityLink;
+import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+import org.camunda.bpm.extension.test.engine.DatabaseSnapshot;
+import org.camunda.bpm.extension.test.engine.HistoryEventCapture;
+import org.camunda.bpm.extension.test.process.model.LazyVariableMap;
 import org.camunda.bpm.extension.test.process.model.UserTaskProperties;
 import org.camunda.bpm.extension.test.report.formatter.ObjectArrayFormatter;
+import org.json.JSONException;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.skyscreamer.jsonassert.JSONCompareMode;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.ObjectUtils;
 
 import com.tngtech.jgiven.annotation.*;
@@ -65,17 +75,61 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   private ModelType modelType;
 
+  // runtime state, read once per then() block
+  private final Map<String, Task> tasks = new HashMap<>();
+  private final Map<String, List<IdentityLink>> taskIdentityLinks = new HashMap<>();
+  private final Map<String, Map<String, Object>> processVariables = new HashMap<>();
+
   @ExpectedScenarioState
   protected Exception exception;
 
+  @Autowired
+  private DatabaseSnapshot databaseSnapshot;
+
+  @Autowired
+  private HistoryEventCapture historyEventCapture;
+
   @AfterScenario
   public void cleanUp() {
-    // cleanup
-    workflowHelper.deleteProcesses();
+    // stop jobs still running
+    cancelScheduledJobs();
+    // cleanup (scenario tenant only, if isolated)
+    if (databaseSnapshot.isEnabled()) {
+      databaseSnapshot.restore();
+    } else {
+      workflowHelper.deleteProcesses();
+    }
+    historyEventCapture.clear();
+    scenarioTenant.end();
     // reset clock
     workflowHelper.resetWorkflowCurrentTime();
   }
 
+  @BeforeStage(repeatable = true)
+  public void invalidateCache() {
+    // when() steps may have changed the runtime state
+    tasks.clear();
+    taskIdentityLinks.clear();
+    processVariables.clear();
+  }
+
+  protected Task getTask() {
+    return tasks.computeIfAbsent(taskId, workflowHelper::getTask);
+  }
+
+  protected List<IdentityLink> getIdentityLinks() {
+    return taskIdentityLinks.computeIfAbsent(taskId, workflowHelper::getIdentityLinksForTask);
+  }
+
+  protected Map<String, Object> getReferencedProcessVariables(String processName) {
+    String referencedProcessId = processNameToId.get(processName);
+    if (!processVariables.containsKey(referencedProcessId)) {
+      // all referenced processes at once
+      processVariables.putAll(workflowHelper.getLazyProcessVariables(new HashSet<>(processNameToId.values())));
+    }
+    return processVariables.get(referencedProcessId);
+  }
+
   // -- Models (rooting & contains-check)
 
   protected ModelType getModelType() {
@@ -147,6 +201,35 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
     return self();
   }
 
+  /**
+   * Compare the serialized form of a value, without deserialization. JSON values are compared as JSON.
+   */
+  @As("contains $key = $serializedValue (serialized)")
+  public SELF contains_serialized(@SingleQuoted String key, @SingleQuoted String serializedValue) {
+    containsKey(key);
+    Object value = getModel() instanceof LazyVariableMap lazyModel
+        ? lazyModel.getSerialized(key)
+        : getModel().get(key);
+    if (value instanceof SerializableValue serializableValue) {
+      if (JSON.getName().equals(serializableValue.getSerializationDataFormat())) {
+        assertJsonEquals(serializedValue, serializableValue.getValueSerialized());
+      } else {
+        assertThat(serializableValue.getValueSerialized()).isEqualTo(serializedValue);
+      }
+    } else {
+      assertThat(Objects.toString(value, null)).isEqualTo(serializedValue);
+    }
+    return self();
+  }
+
+  private void assertJsonEquals(String expected, String actual) {
+    try {
+      JSONAssert.assertEquals(expected, actual, JSONCompareMode.STRICT);
+    } catch (JSONException ex) {
+      throw new AssertionError("Invalid JSON: " + ex.getMessage(), ex);
+    }
+  }
+
   public SELF contains(Map<String, Object> model) {
     for (Map.Entry<String, Object> entry : model.entrySet()) {
       contains(entry.getKey(), entry.getValue());
@@ -173,9 +256,15 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
     return self();
   }
 
+  @As("current time $time")
+  public SELF current_time(@SingleQuoted Date time) {
+    assertThat(workflowHelper.getWorkflowCurrentTime()).isEqualTo(time);
+    return self();
+  }
+
   @As("$number active BPMN process(es)")
   public SELF active_processes(int number) {
-    assertThat(workflowHelper.getProcessInstances()).hasSize(number);
+    assertThat(workflowHelper.countProcessInstances()).isEqualTo(number);
     return self();
   }
 
@@ -183,7 +272,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   @As("$number active BPMN process(es) of type $processType")
   public SELF active_processes(int number, @SingleQuoted String processType) {
-    assertThat(workflowHelper.getProcessInstances(processType)).hasSize(number);
+    assertThat(workflowHelper.countProcessInstances(processType)).isEqualTo(number);
     return self();
   }
 
@@ -207,7 +296,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   public SELF process_runtime() {
     modelType = ModelType.RUNTIME;
-    runtimeModel = workflowHelper.getProcessVariables(processId);
+    runtimeModel = processVariables.computeIfAbsent(processId, workflowHelper::getLazyProcessVariables);
     return self();
   }
 
@@ -215,7 +304,17 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF process_runtime(@SingleQuoted String processName) {
     assertThat(processNameToId).containsKey(processName);
     modelType = ModelType.RUNTIME;
-    runtimeModel = workflowHelper.getProcessVariables(processNameToId.get(processName));
+    runtimeModel = getReferencedProcessVariables(processName);
+    return self();
+  }
+
+  @As("process runtime for $processName with variables $variableNames")
+  public SELF process_runtime(@SingleQuoted String processName, @ObjectArrayFormatter String... variableNames) {
+    assertThat(processNameToId).containsKey(processName);
+    modelType = ModelType.RUNTIME;
+    String referencedProcessId = processNameToId.get(processName);
+    runtimeModel = workflowHelper.getLazyProcessVariables(List.of(referencedProcessId), variableNames)
+        .get(referencedProcessId);
     return self();
   }
 
@@ -226,14 +325,16 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   @As("$number active task(s)")
   public SELF active_tasks(int number) {
-    assertThat(workflowHelper.getTasks()).hasSize(number);
+    assertThat(workflowHelper.countTasks()).isEqualTo(number);
     return self();
   }
 
   @As("active task of type $taskType")
   public SELF active_task(@SingleQuoted String taskType) {
-    active_tasks(1, taskType);
-    taskId = workflowHelper.getTasksByKey(taskType).get(0).getId();
+    List<Task> activeTasks = workflowHelper.getTasksByKey(taskType);
+    assertThat(activeTasks).hasSize(1);
+    taskId = activeTasks.get(0).getId();
+    tasks.put(taskId, activeTasks.get(0));
     return self();
   }
 
@@ -258,7 +359,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF with_task_name(@SingleQuoted String taskName) {
     assertThat(taskId).isNotNull();
     if (!ObjectUtils.isEmpty(taskName)) {
-      assertThat(workflowHelper.getTask(taskId).getName()).isEqualTo(taskName);
+      assertThat(getTask().getName()).isEqualTo(taskName);
     }
     return self();
   }
@@ -266,9 +367,9 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF with_candidate_user(@SingleQuoted String user) {
     assertThat(taskId).isNotNull();
     if (ObjectUtils.isEmpty(user)) {
-      assertThat(workflowHelper.getCandidateUsers(taskId)).isEmpty();
+      assertThat(workflowHelper.getCandidateUsers(getIdentityLinks())).isEmpty();
     } else {
-      assertThat(workflowHelper.getCandidateUsers(taskId)).contains(user);
+      assertThat(workflowHelper.getCandidateUsers(getIdentityLinks())).contains(user);
     }
     return self();
   }
@@ -284,7 +385,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF no_candidate_user(@SingleQuoted String user) {
     assertThat(taskId).isNotNull();
     if (!ObjectUtils.isEmpty(user)) {
-      assertThat(workflowHelper.getCandidateUsers(taskId)).doesNotContain(user);
+      assertThat(workflowHelper.getCandidateUsers(getIdentityLinks())).doesNotContain(user);
     }
     return self();
   }
@@ -292,37 +393,37 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF with_assignee(@SingleQuoted String assignee) {
     assertThat(taskId).isNotNull();
     if (ObjectUtils.isEmpty(assignee)) {
-      assertThat(workflowHelper.getAssignedUsers(taskId)).isEmpty();
+      assertThat(workflowHelper.getAssignedUsers(getIdentityLinks())).isEmpty();
     } else {
-      assertThat(workflowHelper.getAssignedUsers(taskId)).contains(assignee);
+      assertThat(workflowHelper.getAssignedUsers(getIdentityLinks())).contains(assignee);
     }
     return self();
   }
 
   public SELF no_assignee(@SingleQuoted String assignee) {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getAssignedUsers(taskId)).doesNotContain(assignee);
+    assertThat(workflowHelper.getAssignedUsers(getIdentityLinks())).doesNotContain(assignee);
     return self();
   }
 
   public SELF no_users_assigned() {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getAssignedUsers(taskId)).isEmpty();
+    assertThat(workflowHelper.getAssignedUsers(getIdentityLinks())).isEmpty();
     return self();
   }
 
   public SELF no_candidate_users() {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getCandidateUsers(taskId)).isEmpty();
+    assertThat(workflowHelper.getCandidateUsers(getIdentityLinks())).isEmpty();
     return self();
   }
 
   public SELF with_candidate_group(@SingleQuoted String group) {
     assertThat(taskId).isNotNull();
     if (ObjectUtils.isEmpty(group)) {
-      assertThat(workflowHelper.getCandidateGroups(taskId)).isEmpty();
+      assertThat(workflowHelper.getCandidateGroups(getIdentityLinks())).isEmpty();
     } else {
-      assertThat(workflowHelper.getCandidateGroups(taskId)).contains(group);
+      assertThat(workflowHelper.getCandidateGroups(getIdentityLinks())).contains(group);
     }
     return self();
   }
@@ -338,32 +439,33 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   public SELF no_candidate_group(@SingleQuoted String group) {
     assertThat(taskId).isNotNull();
     if (!ObjectUtils.isEmpty(group)) {
-      assertThat(workflowHelper.getCandidateGroups(taskId)).doesNotContain(group);
+      assertThat(workflowHelper.getCandidateGroups(getIdentityLinks())).doesNotContain(group);
     }
     return self();
   }
 
   public SELF no_candidate_groups() {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getCandidateGroups(taskId)).isEmpty();
+    assertThat(workflowHelper.getCandidateGroups(getIdentityLinks())).isEmpty();
     return self();
   }
 
   public SELF with_form_key(@SingleQuoted String formKey) {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getTask(taskId).getFormKey()).isEqualTo(formKey);
+    // form keys are resolved for this assertion only
+    assertThat(workflowHelper.getTaskWithFormKey(taskId).getFormKey()).isEqualTo(formKey);
     return self();
   }
 
   public SELF with_priority(@SingleQuoted int priority) {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getTask(taskId).getPriority()).isEqualTo(priority);
+    assertThat(getTask().getPriority()).isEqualTo(priority);
     return self();
   }
 
   public SELF with_follow_up_date(@SingleQuoted Date date) {
     assertThat(taskId).isNotNull();
-    var followUpDate = workflowHelper.getTask(taskId).getFollowUpDate();
+    var followUpDate = getTask().getFollowUpDate();
     if (date != null) {
       assertThat(followUpDate).isNotNull();
       assertThat(followUpDate).isEqualTo(date);
@@ -376,7 +478,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   @As("with dueDate in Future $duration")
   public SELF with_due_date_in_future(@SingleQuoted Duration duration) {
     assertThat(taskId).isNotNull();
-    Date createTime = workflowHelper.getTask(taskId).getCreateTime();
+    Date createTime = getTask().getCreateTime();
     assertThat(createTime).isNotNull();
     return with_due_date_in_future_from(duration, createTime);
   }
@@ -390,7 +492,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   @As("with dueDate $date")
   public SELF with_due_date(@SingleQuoted Date date) {
     assertThat(taskId).isNotNull();
-    Date dueDate = workflowHelper.getTask(taskId).getDueDate();
+    Date dueDate = getTask().getDueDate();
     if (date != null) {
       assertThat(dueDate).isNotNull();
       assertThat(dueDate).isEqualTo(date);
@@ -401,7 +503,7 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
   @As("with description $description")
   public SELF with_description(@SingleQuoted String description) {
     assertThat(taskId).isNotNull();
-    assertThat(workflowHelper.getTask(taskId).getDescription()).isEqualTo(description);
+    assertThat(getTask().getDescription()).isEqualTo(description);
     return self();
   }
 
@@ -416,23 +518,19 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   @As("$number active task(s) of type $taskType")
   public SELF active_tasks(int number, @SingleQuoted String taskType) {
-    assertThat(workflowHelper.getTasksByKey(taskType)).hasSize(number);
+    assertThat(workflowHelper.countTasksByKey(taskType)).isEqualTo(number);
     return self();
   }
 
   @As("$number active task(s) with $taskName name")
   public SELF active_tasks_with_name(int number, @SingleQuoted String taskName) {
-    assertThat(workflowHelper.getTasks().stream()
-        .filter(task -> task.getName().equals(taskName)))
-        .hasSize(number);
+    assertThat(workflowHelper.countTasksByName(taskName)).isEqualTo(number);
     return self();
   }
 
   @As("$number active not assigned task(s) of type $taskType")
   public SELF active_not_assigned_tasks(int number, @SingleQuoted String taskType) {
-    assertThat(workflowHelper.getTasksByKey(taskType).stream()
-        .filter(task -> Objects.isNull(task.getAssignee())))
-        .hasSize(number);
+    assertThat(workflowHelper.countUnassignedTasksByKey(taskType)).isEqualTo(number);
     return self();
   }
 
@@ -447,27 +545,20 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
 
   @As("$number history task(s)")
   public SELF completed_tasks(int number) {
-    assertThat(workflowHelper.getHistoryTasks().stream()
-        .filter(task -> Objects.nonNull(task.getEndTime())))
-        .hasSize(number);
+    assertThat(workflowHelper.countCompletedHistoryTasks()).isEqualTo(number);
     return self();
   }
 
   @As("$number history task(s) of type $taskType")
   public SELF completed_tasks(int number, @SingleQuoted String taskType) {
-    assertThat(workflowHelper.getHistoryTasksByKey(taskType).stream()
-        .filter(task -> Objects.nonNull(task.getEndTime())))
-        .hasSize(number);
+    assertThat(workflowHelper.countCompletedHistoryTasks(taskType)).isEqualTo(number);
     return self();
   }
 
   @As("completed task of type $taskType")
   public SELF completed_task(@SingleQuoted String taskType) {
     completed_tasks(1, taskType);
-    historyTaskId = workflowHelper.getHistoryTasksByKey(taskType).stream()
-        .filter(task -> Objects.nonNull(task.getEndTime()))
-        .map(HistoricTaskInstance::getId)
-        .findFirst().orElse(null);
+    historyTaskId = workflowHelper.findCompletedHistoryTaskId(taskType);
     assertThat(historyTaskId).isNotNull();
     return self();
   }
@@ -493,17 +584,27 @@ public class ProcessThen<SELF extends ProcessThen<SELF>> extends AbstractProcess
     return self();
   }
 
-  public SELF withActivities(String... activityNames) {
-    for (String activityName : activityNames) {
-      withActivity(activityName);
-    }
+  @As("with activity $activityId executed $number time(s)")
+  public SELF withActivity(@SingleQuoted String activityId, int number) {
+    assertThat(workflowHelper.countActivityTasksById(processId, activityId)).isEqualTo(number);
+    return self();
+  }
+
+  @As("with activities in order $activityIds")
+  public SELF withActivitiesInOrder(@ObjectArrayFormatter String... activityIds) {
+    assertThat(workflowHelper.hasActivitiesInOrder(processId, List.of(activityIds)))
+        .as("activities %s executed in order", List.of(activityIds))
+        .isTrue();
     return self();
   }
 
+  public SELF withActivities(String... activityNames) {
+    return withActivities(List.of(activityNames));
+  }
+
   public SELF withActivities(List<String> activityNames) {
-    for (String activityName : activityNames) {
-      withActivity(activityName);
-    }
+    assertThat(workflowHelper.getExistingActivities(processId, new HashSet<>(activityNames)))
+        .containsAll(activityNames);
     return self();
   }
 
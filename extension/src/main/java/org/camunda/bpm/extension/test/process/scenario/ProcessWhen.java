@@ -1,17 +1,24 @@
 package org.camunda.bpm.extension.test.process.scenario;
 
 import static java.util.Collections.emptyMap;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.camunda.bpm.engine.runtime.MessageCorrelationResult;
+import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.task.Task;
+import org.camunda.bpm.extension.test.process.model.InboundMessage;
+import org.camunda.bpm.extension.test.report.formatter.DurationFieldFormatter;
 import org.camunda.bpm.extension.test.report.formatter.ObjectArrayFormatter;
+import org.camunda.bpm.extension.test.utils.WorkflowTestHelper;
 
 import com.tngtech.jgiven.annotation.*;
 import com.tngtech.jgiven.integration.spring.JGivenStage;
@@ -34,12 +41,18 @@ public class ProcessWhen<SELF extends ProcessWhen<SELF>> extends AbstractProcess
   @ProvidedScenarioState
   protected String processId;
 
+  @ProvidedScenarioState
+  protected List<String> processIds;
+
   @ProvidedScenarioState
   protected final Map<String, String> processNameToId = new HashMap<>();
 
   @ProvidedScenarioState
   private MessageCorrelationResult messageCorrelationResult;
 
+  @ProvidedScenarioState
+  private List<MessageCorrelationResult> messageCorrelationResults;
+
   @ProvidedScenarioState
   protected Exception exception;
 
@@ -86,6 +99,40 @@ public class ProcessWhen<SELF extends ProcessWhen<SELF>> extends AbstractProcess
     return self();
   }
 
+  @As("Create $count processes by message $message concurrently with numbered business keys, referencing the last one")
+  public SELF create_$_processes_by_message(int count, @SingleQuoted String message) {
+    // <businessKey>-1 to <businessKey>-<count>, the process ids are provided in this order
+    List<String> businessKeys = IntStream.rangeClosed(1, count)
+        .mapToObj(index -> businessKey != null ? businessKey + "-" + index : null)
+        .collect(toList());
+    List<ProcessInstance> processes = WorkflowTestHelper.getAll(
+        workflowHelper.sendStartMessagesAsync(message, businessKeys, model));
+    assertThat(processes).hasSize(count).doesNotContainNull();
+    processIds = processes.stream()
+        .map(ProcessInstance::getProcessInstanceId)
+        .collect(toList());
+    processId = processIds.get(processIds.size() - 1);
+
+    log.info("Created {} process(es) concurrently, last {}", count, processId);
+    waitForJobExecutorToProcessAllJobs();
+
+    return self();
+  }
+
+  @As("correlate the inbound messages")
+  public SELF correlate_messages(@Hidden List<InboundMessage> messages) {
+    messageCorrelationResults = workflowHelper.correlateMessages(messages);
+    waitForJobExecutorToProcessAllJobs();
+    return self();
+  }
+
+  @As("correlate the inbound messages with $parallelism worker(s)")
+  public SELF correlate_messages_in_parallel(@Hidden List<InboundMessage> messages, int parallelism) {
+    messageCorrelationResults = workflowHelper.correlateMessagesInParallel(messages, parallelism);
+    waitForJobExecutorToProcessAllJobs();
+    return self();
+  }
+
   public SELF create_a_process_by_message_$_with_result(@SingleQuoted String message) {
     messageCorrelationResult = workflowHelper.sendStartMessageWithResult(message, model);
     assertThat(messageCorrelationResult).isNotNull();
@@ -169,6 +216,32 @@ public class ProcessWhen<SELF extends ProcessWhen<SELF>> extends AbstractProcess
     return self();
   }
 
+  @As("complete all active task(s) of type $taskDefinitionKey in one transaction")
+  public SELF complete_tasks_in_one_transaction(@SingleQuoted String taskDefinitionKey) {
+    return complete_tasks_in_one_transaction(taskDefinitionKey, emptyMap());
+  }
+
+  @As("complete all active task(s) of type $taskDefinitionKey with $variables in one transaction")
+  public SELF complete_tasks_in_one_transaction(@SingleQuoted String taskDefinitionKey,
+      Map<String, Object> variables) {
+    workflowHelper.completeTasksInOneTransaction(taskDefinitionKey, variables);
+    waitForJobExecutorToProcessAllJobs();
+    return self();
+  }
+
+  @As("complete all active task(s) of type $taskDefinitionKey in $parallelism parallel transactions")
+  public SELF complete_tasks_in_parallel(@SingleQuoted String taskDefinitionKey, int parallelism) {
+    workflowHelper.completeTasksInParallel(taskDefinitionKey, emptyMap(), parallelism);
+    waitForJobExecutorToProcessAllJobs();
+    return self();
+  }
+
+  @As("$duration passes")
+  public SELF time_passes(@DurationFieldFormatter Duration duration) {
+    advanceClock(duration);
+    return self();
+  }
+
   public SELF complete_tasks(@ObjectArrayFormatter String... taskDefinitionKeys) {
     Stream.of(taskDefinitionKeys).forEach(this::complete_tasks);
     return self();
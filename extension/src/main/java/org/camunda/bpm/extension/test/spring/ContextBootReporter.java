@@ -0,0 +1,44 @@
+package org.camunda.bpm.extension.test.spring;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringApplicationRunListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Reports the boot time of every application context (i.e. process engine, schema and deployments), registered in
+ * {@code META-INF/spring.factories}.
+ */
+public class ContextBootReporter implements SpringApplicationRunListener {
+
+  private static final Logger log = LoggerFactory.getLogger(ContextBootReporter.class);
+
+  private static final List<Duration> bootTimes = Collections.synchronizedList(new ArrayList<>());
+
+  public ContextBootReporter(SpringApplication application, String[] args) {
+    // required by SpringApplication
+  }
+
+  @Override
+  public void ready(ConfigurableApplicationContext context, Duration timeTaken) {
+    bootTimes.add(timeTaken);
+    log.info("Booted context {} on thread {}, time used {} ms",
+        context.getId(), Thread.currentThread().getName(), timeTaken.toMillis());
+  }
+
+  /**
+   * @return Boot times of all contexts of this JVM.
+   */
+  public static List<Duration> getBootTimes() {
+    synchronized (bootTimes) {
+      return new ArrayList<>(bootTimes);
+    }
+  }
+
+}
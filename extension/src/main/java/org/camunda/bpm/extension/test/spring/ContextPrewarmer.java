@@ -0,0 +1,86 @@
+package org.camunda.bpm.extension.test.spring;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.TestContextManager;
+import org.springframework.util.StringUtils;
+
+/**
+ * Boots the application contexts of the test classes given by the system property
+ * {@value #PREWARM_PROPERTY} (comma separated) in a background thread when the JUnit launcher session opens, while
+ * JUnit discovers the tests. Not registered by default, a test module opts in with a
+ * {@code META-INF/services/org.junit.platform.launcher.LauncherSessionListener} file in its test resources.
+ * <p>
+ * The contexts are booted one after another, since the Spring test context cache holds its lock while loading a
+ * context, so this is no pool of engines: it only moves the boot of the first contexts ahead of the test execution.
+ * The contexts are put into the cache, so all test classes with the same configuration reuse them instead of booting
+ * their own. A test class needing a context still being booted waits for it.
+ */
+public class ContextPrewarmer implements LauncherSessionListener {
+
+  private static final Logger log = LoggerFactory.getLogger(ContextPrewarmer.class);
+
+  public static final String PREWARM_PROPERTY = "camunda.bpm.test.context.prewarm";
+
+  @Override
+  public void launcherSessionOpened(LauncherSession session) {
+    String testClasses = System.getProperty(PREWARM_PROPERTY);
+    if (!StringUtils.hasText(testClasses)) {
+      return;
+    }
+    prewarm(Arrays.stream(StringUtils.commaDelimitedListToStringArray(testClasses))
+        .map(String::trim)
+        .toList());
+  }
+
+  /**
+   * Boots the contexts of the given test classes in a background thread, one after another.
+   *
+   * @return The contexts by test class name, once all are booted (without the ones failing to boot).
+   */
+  public static CompletableFuture<Map<String, ApplicationContext>> prewarm(List<String> testClasses) {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    CompletableFuture<Map<String, ApplicationContext>> contexts = new CompletableFuture<>();
+    Thread thread = new Thread(() -> {
+      Map<String, ApplicationContext> booted = new LinkedHashMap<>();
+      testClasses.forEach(testClass -> prewarm(classLoader, testClass)
+          .ifPresent(context -> booted.put(testClass, context)));
+      contexts.complete(booted);
+    }, "context-prewarm");
+    thread.setContextClassLoader(classLoader);
+    thread.setDaemon(true);
+    thread.start();
+    return contexts;
+  }
+
+  private static Optional<ApplicationContext> prewarm(ClassLoader classLoader, String testClass) {
+    try {
+      return Optional.of(new TestContextManager(Class.forName(testClass, false, classLoader))
+          .getTestContext().getApplicationContext());
+    } catch (ClassNotFoundException | RuntimeException ex) {
+      log.warn("Context of {} not prewarmed: {}", testClass, ex.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void launcherSessionClosed(LauncherSession session) {
+    List<Duration> bootTimes = ContextBootReporter.getBootTimes();
+    if (!bootTimes.isEmpty()) {
+      log.info("Booted {} context(s), time used {} ms",
+          bootTimes.size(), bootTimes.stream().mapToLong(Duration::toMillis).sum());
+    }
+  }
+
+}
@@ -0,0 +1,204 @@
+package org.camunda.bpm.extension.test.spring;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.commons.logging.Log;
+import org.camunda.bpm.engine.impl.util.ProductPropertiesUtil;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.boot.logging.DeferredLogFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.test.context.support.TestPropertySourceUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Keeps the engine database of a test context in an H2 file named by the content hash of the BPMN, DMN and CMMN
+ * resources and by the context configuration, enabled by {@code camunda.bpm.test.deployment-cache.enabled=true}.
+ * <p>
+ * A context booting with unchanged resources finds the schema and the deployments in place, so nothing is created or
+ * parsed upfront (process definitions are parsed on first use). Requires {@code isDeployChangedOnly=true} and a
+ * fixed process archive name ({@code <process-archive name="...">}, the default is the process application name,
+ * which may be generated per boot) in the {@code processes.xml}, otherwise every boot deploys a new version. Changing
+ * any resource changes the file. The state left by an earlier run is removed on boot, see
+ * {@code DeploymentCachePlugin}.
+ * <p>
+ * The resources are looked up below the classpath roots of the {@code META-INF/processes.xml} files, as the process
+ * application scans them, or by the patterns of {@value #RESOURCES_PROPERTY} (comma separated). Contexts of
+ * different configuration (sources, profiles, test properties) get files of their own, and so do contexts of the same
+ * configuration open at the same time.
+ */
+public class DeploymentCacheEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+  public static final String ENABLED_PROPERTY = "camunda.bpm.test.deployment-cache.enabled";
+  public static final String DIRECTORY_PROPERTY = "camunda.bpm.test.deployment-cache.directory";
+  public static final String RESOURCES_PROPERTY = "camunda.bpm.test.deployment-cache.resources";
+
+  private static final String DATASOURCE_URL_PROPERTY = "spring.datasource.url";
+  private static final String DATASOURCE_TYPE_PROPERTY = "spring.datasource.type";
+  private static final String HIKARI_DATA_SOURCE = "com.zaxxer.hikari.HikariDataSource";
+  private static final String SIMPLE_DRIVER_DATA_SOURCE = "org.springframework.jdbc.datasource.SimpleDriverDataSource";
+  private static final String PROPERTY_SOURCE_NAME = "camundaTestDeploymentCache";
+  private static final String PROCESSES_XML = "META-INF/processes.xml";
+  private static final String[] RESOURCE_SUFFIXES = { "**/*.bpmn", "**/*.bpmn20.xml", "**/*.dmn", "**/*.cmmn" };
+
+  // database files of the contexts open in this JVM
+  private static final Set<String> databasesInUse = new HashSet<>();
+
+  private final Log log;
+
+  public DeploymentCacheEnvironmentPostProcessor(DeferredLogFactory logFactory) {
+    this.log = logFactory.getLog(DeploymentCacheEnvironmentPostProcessor.class);
+  }
+
+  @Override
+  public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+    if (!environment.getProperty(ENABLED_PROPERTY, Boolean.class, false)) {
+      return;
+    }
+    if (environment.containsProperty(DATASOURCE_URL_PROPERTY)) {
+      log.warn("Deployment cache disabled, " + DATASOURCE_URL_PROPERTY + " is set");
+      return;
+    }
+    var startTime = System.currentTimeMillis();
+    Path directory = Path.of(environment.getProperty(DIRECTORY_PROPERTY, "target/camunda-deployment-cache"));
+    List<String> resourcePatterns = getResourcePatterns(environment, application.getClassLoader());
+    if (resourcePatterns.isEmpty()) {
+      log.warn("Deployment cache disabled, no " + PROCESSES_XML + " found and " + RESOURCES_PROPERTY + " not set");
+      return;
+    }
+    String database = acquireDatabase(hashResources(application.getClassLoader(), resourcePatterns)
+        + "-" + hashConfiguration(environment, application));
+    // released when the context is closed, a context of the same configuration may reuse the file then
+    application.addListeners((ApplicationListener<ContextClosedEvent>) event -> releaseDatabase(database));
+    // DB_CLOSE_DELAY: open until the JVM exits, even without pooled connections
+    String url = "jdbc:h2:file:" + directory.resolve(database).toAbsolutePath() + ";DB_CLOSE_DELAY=-1";
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(DATASOURCE_URL_PROPERTY, url);
+    if (!environment.containsProperty(DATASOURCE_TYPE_PROPERTY)
+        && !ClassUtils.isPresent(HIKARI_DATA_SOURCE, application.getClassLoader())) {
+      // without connection pool only embedded databases are configured otherwise
+      properties.put(DATASOURCE_TYPE_PROPERTY, SIMPLE_DRIVER_DATA_SOURCE);
+    }
+    environment.getPropertySources().addFirst(new MapPropertySource(PROPERTY_SOURCE_NAME, properties));
+    log.info("Deployment cache " + url + ", time used " + (System.currentTimeMillis() - startTime) + " ms");
+  }
+
+  /**
+   * @return The database name, with a counter if a context open in this JVM already uses it.
+   */
+  private static synchronized String acquireDatabase(String name) {
+    String database = name;
+    for (int index = 2; databasesInUse.contains(database); index++) {
+      database = name + "-" + index;
+    }
+    databasesInUse.add(database);
+    return database;
+  }
+
+  private static synchronized void releaseDatabase(String database) {
+    databasesInUse.remove(database);
+  }
+
+  private static List<String> getResourcePatterns(ConfigurableEnvironment environment, ClassLoader classLoader) {
+    String patterns = environment.getProperty(RESOURCES_PROPERTY);
+    if (StringUtils.hasText(patterns)) {
+      return Arrays.stream(StringUtils.commaDelimitedListToStringArray(patterns)).map(String::trim).toList();
+    }
+    try {
+      // the classpath roots scanned by the process applications
+      List<String> resourcePatterns = new ArrayList<>();
+      var processesXmls = classLoader.getResources(PROCESSES_XML);
+      while (processesXmls.hasMoreElements()) {
+        String processesXml = processesXmls.nextElement().toString();
+        String root = processesXml.substring(0, processesXml.length() - PROCESSES_XML.length());
+        Arrays.stream(RESOURCE_SUFFIXES).forEach(suffix -> resourcePatterns.add(root + suffix));
+      }
+      return resourcePatterns;
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Looking up the process applications failed", ex);
+    }
+  }
+
+  private static String hashResources(ClassLoader classLoader, List<String> resourcePatterns) {
+    try {
+      MessageDigest digest = newDigest();
+      // the schema belongs to the engine version
+      update(digest, String.valueOf(ProductPropertiesUtil.getProductVersion()));
+      for (Resource resource : getResources(classLoader, resourcePatterns)) {
+        update(digest, resource.getURI().toString());
+        digest.update(resource.getContentAsByteArray());
+      }
+      return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    } catch (IOException ex) {
+      throw new UncheckedIOException("Hashing the process resources failed", ex);
+    }
+  }
+
+  private static List<Resource> getResources(ClassLoader classLoader, List<String> resourcePatterns)
+      throws IOException {
+    var resolver = new PathMatchingResourcePatternResolver(classLoader);
+    List<Resource> resources = new ArrayList<>();
+    for (String pattern : resourcePatterns) {
+      resources.addAll(List.of(resolver.getResources(pattern)));
+    }
+    resources.sort(Comparator.comparing(Resource::getDescription));
+    return resources;
+  }
+
+  // e.g. the history level and the id generator are part of the database
+  private static String hashConfiguration(ConfigurableEnvironment environment, SpringApplication application) {
+    MessageDigest digest = newDigest();
+    application.getAllSources().stream()
+        .map(source -> source instanceof Class<?> type ? type.getName() : String.valueOf(source))
+        .sorted()
+        .forEach(source -> update(digest, source));
+    Arrays.stream(environment.getActiveProfiles()).sorted().forEach(profile -> update(digest, profile));
+    for (String name : List.of(TestPropertySourceUtils.INLINED_PROPERTIES_PROPERTY_SOURCE_NAME, "defaultProperties")) {
+      PropertySource<?> propertySource = environment.getPropertySources().get(name);
+      if (propertySource instanceof EnumerablePropertySource<?> properties) {
+        Map<String, String> sortedProperties = new TreeMap<>();
+        for (String property : properties.getPropertyNames()) {
+          sortedProperties.put(property, String.valueOf(properties.getProperty(property)));
+        }
+        sortedProperties.forEach((property, value) -> update(digest, property + "=" + value));
+      }
+    }
+    return HexFormat.of().formatHex(digest.digest(), 0, 4);
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
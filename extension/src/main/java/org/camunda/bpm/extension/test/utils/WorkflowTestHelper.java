@@ -2,41 +2,72 @@ package org.camunda.bpm.extension.test.utils;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.emptyMap;
-import static java.util.Comparator.comparing;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.camunda.bpm.engine.*;
-import org.camunda.bpm.engine.history.HistoricActivityInstance;
-import org.camunda.bpm.engine.history.HistoricActivityInstanceQuery;
-import org.camunda.bpm.engine.history.HistoricTaskInstance;
-import org.camunda.bpm.engine.history.HistoricTaskInstanceQuery;
+import org.camunda.bpm.engine.history.*;
+import org.camunda.bpm.engine.impl.cfg.ProcessEngineConfigurationImpl;
+import org.camunda.bpm.engine.impl.event.EventType;
 import org.camunda.bpm.engine.impl.persistence.entity.TaskEntity;
+import org.camunda.bpm.engine.impl.persistence.entity.VariableInstanceEntity;
 import org.camunda.bpm.engine.impl.util.ClockUtil;
+import org.camunda.bpm.engine.query.Query;
 import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.*;
 import org.camunda.bpm.engine.task.*;
-import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.engine.variable.value.SerializableValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.camunda.bpm.extension.test.engine.DatabaseSnapshot;
+import org.camunda.bpm.extension.test.engine.HistoryEventCapture;
+import org.camunda.bpm.extension.test.engine.ScenarioTenant;
+import org.camunda.bpm.extension.test.engine.StageJobExecutor;
+import org.camunda.bpm.extension.test.process.model.InboundMessage;
+import org.camunda.bpm.extension.test.process.model.LazyVariableMap;
+import org.camunda.bpm.extension.test.process.model.ProcessModelIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ObjectUtils;
 
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class WorkflowTestHelper {
 
   private static final Logger log = LoggerFactory.getLogger(WorkflowTestHelper.class);
 
+  private static final int DELETE_BATCH_SIZE = 500;
+
+  private static final int MAX_COMPLETE_ATTEMPTS = 5;
+
+  private static final int CORRELATION_BATCH_SIZE = 500;
+
+  private static final int HISTORY_PAGE_SIZE = 500;
+
   // Camunda services
 
   @Autowired
@@ -66,6 +97,21 @@ public class WorkflowTestHelper {
   @Autowired
   private ManagementService managementService;
 
+  @Autowired
+  private ScenarioTenant scenarioTenant;
+
+  @Autowired
+  private StageJobExecutor stageJobExecutor;
+
+  @Autowired
+  private HistoryEventCapture historyEventCapture;
+
+  @Value("${camunda.bpm.test.cleanup.delete-history:false}")
+  private boolean deleteHistory;
+
+  @Value("${camunda.bpm.test.model-index.max-size:100}")
+  private long modelIndexMaxSize;
+
   public ProcessEngineConfiguration getProcessEngineConfiguration() {
     return processEngineConfiguration;
   }
@@ -102,13 +148,40 @@ public class WorkflowTestHelper {
     return definition != null ? definition.getKey() : null;
   }
 
-  private final LoadingCache<String, BpmnModelInstance> bpmnModelInstanceCache = CacheBuilder.newBuilder()
-      .build(new CacheLoader<>() {
-        @Override
-        public BpmnModelInstance load(String processDefinitionId) {
-          return repositoryService.getBpmnModelInstance(processDefinitionId);
-        }
-      });
+  // process definition id -> model index, the BPMN model instance itself is not kept
+  private LoadingCache<String, ProcessModelIndex> processModelIndexCache;
+
+  @PostConstruct
+  public void initProcessModelIndexCache() {
+    processModelIndexCache = CacheBuilder.newBuilder()
+        .maximumSize(modelIndexMaxSize)
+        .recordStats()
+        .build(new CacheLoader<>() {
+          @Override
+          public ProcessModelIndex load(String processDefinitionId) {
+            return new ProcessModelIndex(repositoryService.getBpmnModelInstance(processDefinitionId));
+          }
+        });
+  }
+
+  public ProcessModelIndex getProcessModelIndex(String processDefinitionId) {
+    return processModelIndexCache.getUnchecked(processDefinitionId);
+  }
+
+  /**
+   * Drops all model indexes, the definition ids are handed out again after a database snapshot restore.
+   */
+  @EventListener(DatabaseSnapshot.RestoredEvent.class)
+  public void invalidateProcessModelIndexCache() {
+    processModelIndexCache.invalidateAll();
+  }
+
+  /**
+   * @return Hit/miss/eviction statistics of the model index cache.
+   */
+  public CacheStats getProcessModelIndexStats() {
+    return processModelIndexCache.stats();
+  }
 
   // --- Create processes
 
@@ -187,21 +260,125 @@ public class WorkflowTestHelper {
         .list();
   }
 
+  public long countProcessInstances() {
+    return createProcessInstanceQuery().count();
+  }
+
+  public long countProcessInstances(String processDefinitionKey) {
+    return createProcessInstanceQuery()
+        .processDefinitionKey(processDefinitionKey)
+        .count();
+  }
+
   public ProcessInstanceQuery createProcessInstanceQuery() {
-    return runtimeService.createProcessInstanceQuery();
+    var query = runtimeService.createProcessInstanceQuery();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
   }
 
   public Map<String, Object> getProcessVariables(String executionId) {
-    Map<String, Object> variables = new HashMap<>();
-    variableInstanceQuery()
-        .executionIdIn(executionId)
-        .list()
-        .forEach(item -> variables.put(item.getName(), item.getValue()));
+    return getProcessVariables(List.of(executionId)).get(executionId);
+  }
+
+  public Map<String, Map<String, Object>> getProcessVariables(Collection<String> executionIds) {
+    return getProcessVariables(executionIds, true);
+  }
+
+  /**
+   * Load the variables of many executions in one query.
+   *
+   * @param executionIds
+   *          execution ids
+   * @param deserializeObjectValues
+   *          if false, serialized values are not deserialized and returned as {@link SerializableValue}
+   * @param variableNames
+   *          variables to load, all if empty
+   * @return Variables by execution id, for every given execution.
+   */
+  public Map<String, Map<String, Object>> getProcessVariables(Collection<String> executionIds,
+      boolean deserializeObjectValues, String... variableNames) {
+    Map<String, Map<String, Object>> variables = new HashMap<>();
+    executionIds.forEach(executionId -> variables.put(executionId, new HashMap<>()));
+    findVariableInstances(executionIds, deserializeObjectValues, variableNames)
+        .forEach(item -> variables.get(item.getExecutionId())
+            .put(item.getName(), deserializeObjectValues ? item.getValue() : getSerializedValue(item)));
+    return variables;
+  }
+
+  private List<VariableInstance> findVariableInstances(Collection<String> executionIds,
+      boolean deserializeObjectValues, String... variableNames) {
+    if (executionIds.isEmpty()) {
+      return emptyList();
+    }
+    var query = variableInstanceQuery().executionIdIn(executionIds.toArray(new String[0]));
+    if (!ObjectUtils.isEmpty(variableNames)) {
+      query.variableNameIn(variableNames);
+    }
+    if (!deserializeObjectValues) {
+      query.disableCustomObjectDeserialization();
+    }
+    return query.list();
+  }
+
+  private Object getSerializedValue(VariableInstance variable) {
+    TypedValue typedValue = variable.getTypedValue();
+    return typedValue instanceof SerializableValue serializableValue && !serializableValue.isDeserialized()
+        && serializableValue.getValueSerialized() != null
+        ? serializableValue
+        : typedValue.getValue();
+  }
+
+  /**
+   * Load the variables of many executions in one query, serialized values are deserialized on first access.
+   *
+   * @param executionIds
+   *          execution ids
+   * @param variableNames
+   *          variables to load, all if empty
+   * @return Variables by execution id, for every given execution.
+   */
+  public Map<String, Map<String, Object>> getLazyProcessVariables(Collection<String> executionIds,
+      String... variableNames) {
+    Map<String, Map<String, VariableInstance>> variableInstances = new HashMap<>();
+    executionIds.forEach(executionId -> variableInstances.put(executionId, new HashMap<>()));
+    findVariableInstances(executionIds, false, variableNames)
+        .forEach(item -> variableInstances.get(item.getExecutionId()).put(item.getName(), item));
+    Map<String, Map<String, Object>> variables = new HashMap<>();
+    variableInstances.forEach((executionId, instances) -> {
+      Map<String, Object> values = new HashMap<>();
+      instances.forEach((name, item) -> values.put(name, getSerializedValue(item)));
+      variables.put(executionId, new LazyVariableMap(values, name -> deserializeValue(instances.get(name))));
+    });
     return variables;
   }
 
+  /**
+   * Deserializes a value loaded without custom object deserialization. The serialized value was fetched by the
+   * query already, and reading it with the serializer doesn't register the value for implicit updates.
+   */
+  private Object deserializeValue(VariableInstance variable) {
+    VariableInstanceEntity entity = (VariableInstanceEntity) variable;
+    return ((ProcessEngineConfigurationImpl) processEngineConfiguration).getCommandExecutorTxRequired()
+        .execute(commandContext -> entity.getSerializer().readValue(entity, true, false).getValue());
+  }
+
+  public Map<String, Object> getLazyProcessVariables(String executionId) {
+    return getLazyProcessVariables(List.of(executionId)).get(executionId);
+  }
+
+  public Object getProcessVariable(String executionId, String variableName) {
+    return Optional.ofNullable(variableInstanceQuery()
+        .executionIdIn(executionId)
+        .variableName(variableName)
+        .singleResult())
+        .map(VariableInstance::getValue)
+        .orElse(null);
+  }
+
   public VariableInstanceQuery variableInstanceQuery() {
-    return runtimeService.createVariableInstanceQuery();
+    var query = runtimeService.createVariableInstanceQuery();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
   }
 
   // --- Delete processes
@@ -210,25 +387,84 @@ public class WorkflowTestHelper {
     runtimeService.deleteProcessInstance(processId, reason);
   }
 
-  public void deleteProcesses(String reason) {
-    getProcessInstances()
-        .forEach(process -> deleteProcess(process.getId(), reason));
+  /**
+   * Delete all (root) process instances in bulk, skipping custom listeners and io mappings.
+   *
+   * @param reason
+   *          delete reason
+   * @return Number of deleted process instances.
+   */
+  public int deleteProcesses(String reason) {
+    return deletePaged(createProcessInstanceQuery().rootProcessInstances(), ProcessInstance::getId,
+        ids -> runtimeService.deleteProcessInstances(ids, reason, true, false, false, true));
   }
 
   public void deleteProcesses() {
-    deleteProcesses("cleanup");
-//    deleteHistoryProcesses();
-//    closeCaseInstances();
-//    deleteHistoryCaseInstances();
-//    deleteHistoricDecisionProcesses();
+    var startTime = System.currentTimeMillis();
+    int processes = deleteProcesses("cleanup");
+    if (deleteHistory) {
+      int historyProcesses = deleteHistoryProcesses();
+      int historyCaseInstances = deleteHistoryCaseInstances();
+      int historyDecisions = deleteHistoricDecisionProcesses();
+      log.info("Deleted {} process(es), {} historic process(es), {} historic case(s), {} historic decision(s), "
+          + "time used {} ms", processes, historyProcesses, historyCaseInstances, historyDecisions,
+          System.currentTimeMillis() - startTime);
+    } else {
+      log.info("Deleted {} process(es), time used {} ms", processes, System.currentTimeMillis() - startTime);
+    }
+  }
+
+  public int deleteHistoryProcesses() {
+    var query = historyService.createHistoricProcessInstanceQuery().finished();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return deletePaged(query, HistoricProcessInstance::getId, historyService::deleteHistoricProcessInstancesBulk);
+  }
+
+  public int deleteHistoryCaseInstances() {
+    var query = historyService.createHistoricCaseInstanceQuery().closed();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return deletePaged(query, HistoricCaseInstance::getId, historyService::deleteHistoricCaseInstancesBulk);
+  }
+
+  public int deleteHistoricDecisionProcesses() {
+    var query = historyService.createHistoricDecisionInstanceQuery();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return deletePaged(query, HistoricDecisionInstance::getId, historyService::deleteHistoricDecisionInstancesBulk);
+  }
+
+  /**
+   * Deletes the results of the query in batches, only the ids of one batch are loaded at a time. Each batch is read
+   * from the first result again, as the previous one is deleted meanwhile.
+   *
+   * @return Number of deleted results.
+   */
+  private static <T> int deletePaged(Query<?, T> query, Function<T, String> idOf, Consumer<List<String>> delete) {
+    int deleted = 0;
+    List<String> ids;
+    do {
+      ids = query.listPage(0, DELETE_BATCH_SIZE).stream()
+          .map(idOf)
+          .collect(toList());
+      if (!ids.isEmpty()) {
+        delete.accept(ids);
+      }
+      deleted += ids.size();
+    } while (ids.size() == DELETE_BATCH_SIZE);
+    return deleted;
   }
 
   // -- User tasks
 
+  /**
+   * @return The active tasks, form keys are not initialized (see {@link #getTaskWithFormKey(String)}).
+   */
   public List<Task> getTasks() {
     return tasksQuery().list();
   }
 
+  /**
+   * @return The task, its form key is not initialized (see {@link #getTaskWithFormKey(String)}).
+   */
   public Task getTask(String taskId) {
     if (!ObjectUtils.isEmpty(taskId)) {
       return tasksQuery()
@@ -238,6 +474,35 @@ public class WorkflowTestHelper {
     return null;
   }
 
+  /**
+   * @return The task with initialized form key, see {@link TaskQuery#initializeFormKeys()}.
+   */
+  public Task getTaskWithFormKey(String taskId) {
+    if (!ObjectUtils.isEmpty(taskId)) {
+      return tasksQuery()
+          .taskId(taskId)
+          .initializeFormKeys()
+          .singleResult();
+    }
+    return null;
+  }
+
+  public long countTasks() {
+    return tasksQuery().count();
+  }
+
+  public long countTasksByKey(String taskDefinitionKey) {
+    return tasksByKeyQuery(taskDefinitionKey).count();
+  }
+
+  public long countTasksByName(String taskName) {
+    return tasksQuery().taskName(taskName).count();
+  }
+
+  public long countUnassignedTasksByKey(String taskDefinitionKey) {
+    return tasksByKeyQuery(taskDefinitionKey).taskUnassigned().count();
+  }
+
   public List<Task> getTasksByKey(String taskDefinitionKey) {
     return tasksByKeyQuery(taskDefinitionKey).list();
   }
@@ -260,22 +525,28 @@ public class WorkflowTestHelper {
     return tasksQuery().processInstanceId(processId);
   }
 
+  /**
+   * @return Query for the active tasks, form keys are not initialized (see {@link #getTaskWithFormKey(String)}).
+   */
   public TaskQuery tasksQuery() {
-    return taskService
-        .createTaskQuery()
-        .initializeFormKeys();
+    var query = taskService.createTaskQuery();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
   }
 
   public List<HistoricTaskInstance> getHistoryTasks() {
-    return historyService
-        .createHistoricTaskInstanceQuery()
-        .list();
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.getTasks().collect(toList());
+    }
+    return getHistoryTasksQuery().list();
   }
 
   public HistoricTaskInstance getHistoryTask(String taskId) {
     if (!ObjectUtils.isEmpty(taskId)) {
-      return historyService
-          .createHistoricTaskInstanceQuery()
+      if (historyEventCapture.isEnabled()) {
+        return historyEventCapture.getTask(taskId);
+      }
+      return getHistoryTasksQuery()
           .taskId(taskId)
           .singleResult();
     }
@@ -287,16 +558,31 @@ public class WorkflowTestHelper {
   }
 
   public List<HistoricTaskInstance> getHistoryTasks(String taskDefinitionKey, Map<String, Object> taskLocalVariables) {
+    if (historyEventCapture.isEnabled() && ObjectUtils.isEmpty(taskLocalVariables)) {
+      return getCapturedTasks(task -> taskDefinitionKey == null
+          || taskDefinitionKey.equals(task.getTaskDefinitionKey()));
+    }
     return getHistoryTasksQuery(taskDefinitionKey, taskLocalVariables).list();
   }
 
   public List<HistoricTaskInstance> getHistoryTasks(String processId, String taskDefinitionKey,
       Map<String, Object> taskLocalVariables) {
+    if (historyEventCapture.isEnabled() && ObjectUtils.isEmpty(taskLocalVariables)) {
+      return getCapturedTasks(task -> processId.equals(task.getProcessInstanceId())
+          && (taskDefinitionKey == null || taskDefinitionKey.equals(task.getTaskDefinitionKey())));
+    }
     return getHistoryTasksQuery(taskDefinitionKey, taskLocalVariables)
         .processInstanceId(processId)
         .list();
   }
 
+  // tasks recorded by the history capture, the task variables are in the history tables only
+  private List<HistoricTaskInstance> getCapturedTasks(Predicate<HistoricTaskInstance> filter) {
+    return historyEventCapture.getTasks()
+        .filter(filter)
+        .collect(toList());
+  }
+
   private HistoricTaskInstanceQuery getHistoryTasksQuery(String taskDefinitionKey,
       Map<String, Object> taskLocalVariables) {
     HistoricTaskInstanceQuery query = getHistoryTasksQuery().taskDefinitionKey(taskDefinitionKey);
@@ -307,8 +593,88 @@ public class WorkflowTestHelper {
     return query;
   }
 
+  public long countCompletedHistoryTasks() {
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.countCompletedTasks(null);
+    }
+    return getHistoryTasksQuery().finished().count();
+  }
+
+  public long countCompletedHistoryTasks(String taskDefinitionKey) {
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.countCompletedTasks(taskDefinitionKey);
+    }
+    return getHistoryTasksQuery().taskDefinitionKey(taskDefinitionKey).finished().count();
+  }
+
+  /**
+   * @return Id of a completed history task of the type, null if none.
+   */
+  public String findCompletedHistoryTaskId(String taskDefinitionKey) {
+    return streamCompletedHistoryTasks(taskDefinitionKey)
+        .map(HistoricTaskInstance::getId)
+        .findFirst().orElse(null);
+  }
+
+  /**
+   * @return Completed history tasks of the type, loaded page by page while the stream is consumed (or recorded by the
+   *         history capture, if enabled).
+   */
+  public Stream<HistoricTaskInstance> streamCompletedHistoryTasks(String taskDefinitionKey) {
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.getTasks()
+          .filter(task -> task.getEndTime() != null)
+          .filter(task -> taskDefinitionKey == null || taskDefinitionKey.equals(task.getTaskDefinitionKey()))
+          .sorted(Comparator.comparing(HistoricTaskInstance::getStartTime,
+              Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(HistoricTaskInstance::getId));
+    }
+    return streamPaged(getHistoryTasksQuery()
+        .taskDefinitionKey(taskDefinitionKey)
+        .finished()
+        .orderByHistoricActivityInstanceStartTime().asc()
+        .orderByTaskId().asc());
+  }
+
   public HistoricTaskInstanceQuery getHistoryTasksQuery() {
-    return historyService.createHistoricTaskInstanceQuery();
+    requireHistoryTables("history task query");
+    var query = historyService.createHistoricTaskInstanceQuery();
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
+  }
+
+  /**
+   * Lazily pages through the results of an ordered query, so only one page is in memory at a time.
+   */
+  private static <T> Stream<T> streamPaged(Query<?, T> query) {
+    Iterator<T> iterator = new Iterator<>() {
+
+      private int firstResult;
+
+      private Iterator<T> page = Collections.emptyIterator();
+
+      private boolean lastPage;
+
+      @Override
+      public boolean hasNext() {
+        if (!page.hasNext() && !lastPage) {
+          List<T> results = query.listPage(firstResult, HISTORY_PAGE_SIZE);
+          firstResult += results.size();
+          lastPage = results.size() < HISTORY_PAGE_SIZE;
+          page = results.iterator();
+        }
+        return page.hasNext();
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return page.next();
+      }
+
+    };
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
   }
 
   public void setTaskLocalVariable(TaskEntity task, String variableName, Object value) {
@@ -320,39 +686,55 @@ public class WorkflowTestHelper {
   }
 
   public List<String> getCandidateUsers(String taskId) {
-    return getTaskUsers(taskId, IdentityLinkType.CANDIDATE);
+    return getCandidateUsers(getIdentityLinksForTask(taskId));
+  }
+
+  public List<String> getCandidateUsers(List<IdentityLink> identityLinks) {
+    return getTaskUsers(identityLinks, IdentityLinkType.CANDIDATE);
   }
 
   public List<String> getAssignedUsers(String taskId) {
-    return getTaskUsers(taskId, IdentityLinkType.ASSIGNEE);
+    return getAssignedUsers(getIdentityLinksForTask(taskId));
+  }
+
+  public List<String> getAssignedUsers(List<IdentityLink> identityLinks) {
+    return getTaskUsers(identityLinks, IdentityLinkType.ASSIGNEE);
   }
 
   // assignee + candidates
   public List<String> getInvolvedUsers(String taskId) {
-    Set<String> involvedUsers = Sets.newHashSet(getAssignedUsers(taskId));
-    involvedUsers.addAll(getCandidateUsers(taskId));
+    return getInvolvedUsers(getIdentityLinksForTask(taskId));
+  }
+
+  public List<String> getInvolvedUsers(List<IdentityLink> identityLinks) {
+    Set<String> involvedUsers = Sets.newHashSet(getAssignedUsers(identityLinks));
+    involvedUsers.addAll(getCandidateUsers(identityLinks));
     return Lists.newArrayList(involvedUsers);
   }
 
-  private List<String> getTaskUsers(String taskId, String identityLinkType) {
-    return getIdentityLinksForTask(taskId).stream()
+  private List<String> getTaskUsers(List<IdentityLink> identityLinks, String identityLinkType) {
+    return identityLinks.stream()
         .filter(id -> identityLinkType.equals(id.getType()) && id.getUserId() != null)
         .map(IdentityLink::getUserId)
         .distinct()
         .collect(toList());
   }
 
-  private List<IdentityLink> getIdentityLinksForTask(String taskId) {
+  public List<IdentityLink> getIdentityLinksForTask(String taskId) {
     return Optional.ofNullable(taskService.getIdentityLinksForTask(taskId))
         .orElse(emptyList());
   }
 
   public List<String> getCandidateGroups(String taskId) {
-    return getTaskGroups(taskId, IdentityLinkType.CANDIDATE);
+    return getCandidateGroups(getIdentityLinksForTask(taskId));
+  }
+
+  public List<String> getCandidateGroups(List<IdentityLink> identityLinks) {
+    return getTaskGroups(identityLinks, IdentityLinkType.CANDIDATE);
   }
 
-  private List<String> getTaskGroups(String taskId, String identityLinkType) {
-    return getIdentityLinksForTask(taskId).stream()
+  private List<String> getTaskGroups(List<IdentityLink> identityLinks, String identityLinkType) {
+    return identityLinks.stream()
         .filter(id -> identityLinkType.equals(id.getType()) && id.getGroupId() != null)
         .map(IdentityLink::getGroupId)
         .distinct()
@@ -376,6 +758,96 @@ public class WorkflowTestHelper {
         .forEach(task -> completeTask(task.getId(), variables));
   }
 
+  public int completeTasksInOneTransaction(String taskDefinitionKey, Map<String, Object> variables) {
+    List<String> taskIds = getTasksByKey(taskDefinitionKey).stream().map(Task::getId).collect(toList());
+    completeTasksInOneTransaction(taskIds, variables);
+    return taskIds.size();
+  }
+
+  /**
+   * Complete tasks in one command context, i.e. one transaction and one flush. Sibling tasks (e.g. of a
+   * multi-instance activity) can't fail with an {@link OptimisticLockingException}.
+   */
+  public void completeTasksInOneTransaction(Collection<String> taskIds, Map<String, Object> variables) {
+    var startTime = System.currentTimeMillis();
+    // the task service commands reuse the command context of the outer command
+    ((ProcessEngineConfigurationImpl) processEngineConfiguration).getCommandExecutorTxRequired()
+        .execute(commandContext -> {
+          taskIds.forEach(taskId -> taskService.complete(taskId, variables));
+          return null;
+        });
+    log.info("Completed {} task(s) in one transaction, time used {} ms",
+        taskIds.size(), System.currentTimeMillis() - startTime);
+  }
+
+  public int completeTasksInParallel(String taskDefinitionKey, Map<String, Object> variables, int parallelism) {
+    List<String> taskIds = getTasksByKey(taskDefinitionKey).stream().map(Task::getId).collect(toList());
+    completeTasksInParallel(taskIds, variables, parallelism);
+    return taskIds.size();
+  }
+
+  /**
+   * Complete tasks in parallel transactions, a completion failing with an {@link OptimisticLockingException} is
+   * retried.
+   *
+   * @param parallelism
+   *          number of concurrent transactions
+   */
+  public void completeTasksInParallel(Collection<String> taskIds, Map<String, Object> variables, int parallelism) {
+    var startTime = System.currentTimeMillis();
+    List<String> ids = new ArrayList<>(taskIds);
+    int chunkSize = Math.max(1, (ids.size() + parallelism - 1) / parallelism);
+    List<Future<Integer>> futures = Lists.partition(ids, chunkSize).stream()
+        .map(chunk -> stageJobExecutor.submit(() -> {
+          int retries = 0;
+          for (String taskId : chunk) {
+            retries += completeTaskWithRetry(taskId, variables);
+          }
+          return retries;
+        }))
+        .collect(toList());
+    int retries = getAll(futures).stream().mapToInt(Integer::intValue).sum();
+    log.info("Completed {} task(s) in parallel with {} retries, time used {} ms",
+        ids.size(), retries, System.currentTimeMillis() - startTime);
+  }
+
+  private int completeTaskWithRetry(String taskId, Map<String, Object> variables) {
+    for (int attempt = 1;; attempt++) {
+      try {
+        completeTask(taskId, variables);
+        return attempt - 1;
+      } catch (RuntimeException ex) {
+        if (attempt >= MAX_COMPLETE_ATTEMPTS || !isOptimisticLockingFailure(ex)) {
+          throw ex;
+        }
+        log.debug("Retry completion of task {} after optimistic locking failure", taskId);
+      }
+    }
+  }
+
+  private static <T> T getCompletion(Future<T> future) {
+    try {
+      return future.get();
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new ProcessEngineException("Asynchronous call failed", ex.getCause());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new ProcessEngineException("Interrupted while waiting for an asynchronous call", ex);
+    }
+  }
+
+  public static boolean isOptimisticLockingFailure(Throwable ex) {
+    for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+      if (cause instanceof OptimisticLockingException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   // -- Variables
 
   public void setVariables(String executionId, Map<String, Object> values) {
@@ -393,7 +865,7 @@ public class WorkflowTestHelper {
    *          payload
    * @return Process instance or NULL.
    */
-  public synchronized ProcessInstance sendStartMessage(String message, Map<String, Object> payload) {
+  public ProcessInstance sendStartMessage(String message, Map<String, Object> payload) {
     return sendStartMessage(message, null, payload);
   }
 
@@ -408,8 +880,7 @@ public class WorkflowTestHelper {
    *          payload
    * @return Process instance or NULL.
    */
-  public synchronized ProcessInstance sendStartMessage(String message, String businessKey,
-      Map<String, Object> payload) {
+  public ProcessInstance sendStartMessage(String message, String businessKey, Map<String, Object> payload) {
     var builder = messageCorrelationBuilder(message, payload);
     if (!ObjectUtils.isEmpty(businessKey)) { // ensureNotNull("businessKey", businessKey) in Camunda
       builder.processInstanceBusinessKey(businessKey);
@@ -421,6 +892,37 @@ public class WorkflowTestHelper {
     return result;
   }
 
+  /**
+   * Start process by message start event, on the stage job executor.
+   *
+   * @return Future of the process instance.
+   */
+  public Future<ProcessInstance> sendStartMessageAsync(String message, String businessKey,
+      Map<String, Object> payload) {
+    return stageJobExecutor.submit(() -> sendStartMessage(message, businessKey, payload));
+  }
+
+  /**
+   * Start a process by message start event per business key, concurrently.
+   *
+   * @return Futures of the process instances, in the order of the business keys.
+   */
+  public List<Future<ProcessInstance>> sendStartMessagesAsync(String message, Collection<String> businessKeys,
+      Map<String, Object> payload) {
+    return businessKeys.stream()
+        .map(businessKey -> sendStartMessageAsync(message, businessKey, payload))
+        .collect(toList());
+  }
+
+  /**
+   * Waits for the futures of asynchronous helper calls, a failure of a call is rethrown.
+   */
+  public static <T> List<T> getAll(List<Future<T>> futures) {
+    return futures.stream()
+        .map(WorkflowTestHelper::getCompletion)
+        .collect(toList());
+  }
+
   /**
    * Start process by message start event
    *
@@ -446,49 +948,298 @@ public class WorkflowTestHelper {
         .setVariables(payload);
   }
 
+  /**
+   * Correlate messages in order, pipelined in one transaction per batch of up to {@value #CORRELATION_BATCH_SIZE}
+   * messages, see {@link #correlationBatches}. A failing message rolls back its batch.
+   *
+   * @return The correlation results, in the order of the messages.
+   */
+  public List<MessageCorrelationResult> correlateMessages(List<InboundMessage> messages) {
+    var startTime = System.currentTimeMillis();
+    List<MessageCorrelationResult> results = new ArrayList<>(messages.size());
+    correlationBatches(messages, InboundMessage::getBusinessKey)
+        .forEach(batch -> results.addAll(correlateMessagesInOneTransaction(batch)));
+    log.info("Correlated {} message(s), time used {} ms", messages.size(), System.currentTimeMillis() - startTime);
+    return results;
+  }
+
+  /**
+   * Correlate messages on a worker pool. Messages of the same business key stay on one worker, so they are
+   * correlated in order.
+   *
+   * @param parallelism
+   *          number of workers
+   * @return The correlation results, in the order of the messages.
+   */
+  public List<MessageCorrelationResult> correlateMessagesInParallel(List<InboundMessage> messages, int parallelism) {
+    var startTime = System.currentTimeMillis();
+    List<List<Integer>> lanes = new ArrayList<>();
+    IntStream.range(0, parallelism).forEach(lane -> lanes.add(new ArrayList<>()));
+    IntStream.range(0, messages.size()).forEach(index -> lanes
+        .get(Math.floorMod(Objects.hashCode(messages.get(index).getBusinessKey()), parallelism))
+        .add(index));
+
+    MessageCorrelationResult[] results = new MessageCorrelationResult[messages.size()];
+    List<Future<Void>> futures = lanes.stream()
+        .filter(lane -> !lane.isEmpty())
+        .map(lane -> stageJobExecutor.<Void>submit(() -> {
+          for (List<Integer> batch : correlationBatches(lane, index -> messages.get(index).getBusinessKey())) {
+            List<MessageCorrelationResult> batchResults = correlateMessagesInOneTransaction(
+                batch.stream().map(messages::get).collect(toList()));
+            for (int i = 0; i < batch.size(); i++) {
+              results[batch.get(i)] = batchResults.get(i);
+            }
+          }
+          return null;
+        }))
+        .collect(toList());
+    getAll(futures);
+    log.info("Correlated {} message(s) in parallel, time used {} ms",
+        messages.size(), System.currentTimeMillis() - startTime);
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Splits messages into batches correlated in one transaction each. A command doesn't see the executions and
+   * subscriptions created by an earlier correlation of the same command (they are flushed on commit), so a message
+   * of a business key already in the batch (e.g. an intermediate message following the start message) starts a new
+   * batch. Messages without business key may depend on any other message, they are correlated in a batch of their
+   * own. Messages of different business keys are expected to be independent.
+   */
+  private static <T> List<List<T>> correlationBatches(List<T> messages, Function<T, String> businessKeyOf) {
+    List<List<T>> batches = new ArrayList<>();
+    List<T> batch = new ArrayList<>();
+    Set<String> businessKeys = new HashSet<>();
+    for (T message : messages) {
+      String businessKey = businessKeyOf.apply(message);
+      if (ObjectUtils.isEmpty(businessKey)) {
+        businessKey = null;
+      }
+      if (!batch.isEmpty() && (batch.size() == CORRELATION_BATCH_SIZE || businessKey == null
+          || businessKeys.contains(businessKey) || businessKeys.contains(null))) {
+        batches.add(batch);
+        batch = new ArrayList<>();
+        businessKeys.clear();
+      }
+      batch.add(message);
+      businessKeys.add(businessKey);
+    }
+    if (!batch.isEmpty()) {
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private List<MessageCorrelationResult> correlateMessagesInOneTransaction(List<InboundMessage> messages) {
+    // the correlation commands reuse the command context of the outer command
+    return ((ProcessEngineConfigurationImpl) processEngineConfiguration).getCommandExecutorTxRequired()
+        .execute(commandContext -> messages.stream()
+            .map(message -> messageCorrelationBuilder(message).correlateWithResult())
+            .collect(toList()));
+  }
+
+  private MessageCorrelationBuilder messageCorrelationBuilder(InboundMessage message) {
+    var builder = messageCorrelationBuilder(message.getMessageName(), message.getPayload());
+    if (!ObjectUtils.isEmpty(message.getBusinessKey())) {
+      builder.processInstanceBusinessKey(message.getBusinessKey());
+    }
+    scenarioTenant.ifScoped(tenantId -> restrictToTenant(builder, message.getMessageName(), tenantId));
+    return builder;
+  }
+
+  /**
+   * Under tenant isolation a message is delivered to the executions of the scenario, if one of them waits for it.
+   * Otherwise it starts a process instance of a shared definition, which is assigned to the scenario.
+   */
+  private void restrictToTenant(MessageCorrelationBuilder builder, String message, String tenantId) {
+    long subscriptions = runtimeService.createEventSubscriptionQuery()
+        .eventType(EventType.MESSAGE.name())
+        .eventName(message)
+        .tenantIdIn(tenantId)
+        .count();
+    if (subscriptions > 0) {
+      builder.tenantId(tenantId);
+    } else {
+      builder.withoutTenantId().startMessageOnly();
+    }
+  }
+
   // -- Activities
 
+  /**
+   * @return Activities of the process, loaded page by page while the stream is consumed (or recorded by the history
+   *         capture, if enabled).
+   */
+  public Stream<HistoricActivityInstance> streamActivityTasks(String processId) {
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.getActivities(processId).stream();
+    }
+    return streamPaged(historicActivityInstanceQuery(processId)
+        .orderByHistoricActivityInstanceStartTime().asc()
+        .orderPartiallyByOccurrence().asc()
+        .orderByHistoricActivityInstanceId().asc());
+  }
+
+  /**
+   * @param activityIds
+   *          activity ids, other activities may be executed in between
+   * @return Whether the process executed the activities in this order. The history is read up to the last one only.
+   */
+  public boolean hasActivitiesInOrder(String processId, List<String> activityIds) {
+    if (activityIds.isEmpty()) {
+      return true;
+    }
+    Iterator<String> expectedActivityIds = activityIds.iterator();
+    String expectedActivityId = expectedActivityIds.next();
+    Iterator<HistoricActivityInstance> activityTasks = streamActivityTasks(processId).iterator();
+    while (activityTasks.hasNext()) {
+      if (activityTasks.next().getActivityId().equals(expectedActivityId)) {
+        if (!expectedActivityIds.hasNext()) {
+          return true;
+        }
+        expectedActivityId = expectedActivityIds.next();
+      }
+    }
+    return false;
+  }
+
+  public long countActivityTasksById(String processId, String activityId) {
+    if (historyEventCapture.isEnabled()) {
+      return getCapturedActivities(processId, activity -> activityId.equals(activity.getActivityId())).size();
+    }
+    return historicActivityInstanceQuery(processId).activityId(activityId).count();
+  }
+
   public List<HistoricActivityInstance> getActivityTasks(String processId) {
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.getActivities(processId);
+    }
     return historicActivityInstanceQuery(processId)
         .orderByHistoricActivityInstanceStartTime().asc()
         .list();
   }
 
   public List<HistoricActivityInstance> getActivityTasksById(String processId, String activityId) {
-    return getActivityTasks(processId).stream()
-        .filter(activity -> activityId.equals(activity.getActivityId()))
-        .collect(toList());
+    if (historyEventCapture.isEnabled()) {
+      return getCapturedActivities(processId, activity -> activityId.equals(activity.getActivityId()));
+    }
+    return historicActivityInstanceQuery(processId)
+        .activityId(activityId)
+        .orderByHistoricActivityInstanceStartTime().asc()
+        .list();
   }
 
   public HistoricActivityInstance getLastActivityTaskById(String processId, String activityId) {
-    return Optional.ofNullable(getActivityTasksById(processId, activityId)).orElse(emptyList()).stream()
-        .sorted(comparing(HistoricActivityInstance::getStartTime).reversed())
-        .findFirst() // latest
-        .orElse(null);
+    if (historyEventCapture.isEnabled()) {
+      return getLast(getActivityTasksById(processId, activityId));
+    }
+    return getLastActivityTask(historicActivityInstanceQuery(processId).activityId(activityId));
   }
 
   public List<HistoricActivityInstance> getActivityTasksByName(String processId, String activityName) {
-    return getActivityTasks(processId).stream()
-        .filter(activity -> activityName.equals(activity.getActivityName()))
-        .collect(toList());
+    if (historyEventCapture.isEnabled()) {
+      return getCapturedActivities(processId, activity -> activityName.equals(activity.getActivityName()));
+    }
+    return historicActivityInstanceQuery(processId)
+        .activityName(activityName)
+        .orderByHistoricActivityInstanceStartTime().asc()
+        .list();
   }
 
   public HistoricActivityInstance getLastActivityTaskByName(String processId, String activityName) {
-    return Optional.ofNullable(getActivityTasksByName(processId, activityName)).orElse(emptyList()).stream()
-        .sorted(comparing(HistoricActivityInstance::getStartTime).reversed())
+    if (historyEventCapture.isEnabled()) {
+      return getLast(getActivityTasksByName(processId, activityName));
+    }
+    return getLastActivityTask(historicActivityInstanceQuery(processId).activityName(activityName));
+  }
+
+  private HistoricActivityInstance getLastActivityTask(HistoricActivityInstanceQuery query) {
+    return query
+        .orderByHistoricActivityInstanceStartTime().desc()
+        .orderPartiallyByOccurrence().desc()
+        .listPage(0, 1).stream()
         .findFirst() // latest
         .orElse(null);
   }
 
+  // activities recorded by the history capture, ordered by start time
+  private List<HistoricActivityInstance> getCapturedActivities(String processId,
+      Predicate<HistoricActivityInstance> filter) {
+    return historyEventCapture.getActivities(processId).stream()
+        .filter(filter)
+        .collect(toList());
+  }
+
+  private static HistoricActivityInstance getLast(List<HistoricActivityInstance> activities) {
+    return activities.isEmpty() ? null : activities.get(activities.size() - 1);
+  }
+
+  private void requireHistoryTables(String query) {
+    if (historyEventCapture.isEnabled() && !historyEventCapture.isPersist()) {
+      throw new IllegalStateException("The " + query + " reads the history tables, which are not written with "
+          + "camunda.bpm.test.history-capture.persist=false");
+    }
+  }
+
   public boolean hasActivity(String processId, String activity) {
-    return getActivityTasks(processId).stream()
-        .anyMatch(p -> activity.equals(p.getActivityName()) || activity.equals(p.getActivityId()));
+    return hasActivities(processId, Set.of(activity));
+  }
+
+  public boolean hasActivities(String processId, Set<String> activities) {
+    return getExistingActivities(processId, activities).containsAll(activities);
+  }
+
+  /**
+   * Find activities of a process by id or name, in one query. It returns one row per executed activity matching an
+   * id or name, names are resolved against the model index of the definition of these rows.
+   *
+   * @param processId
+   *          process instance id
+   * @param activities
+   *          activity ids and/or names
+   * @return Subset of the given activities, which were executed by the process.
+   */
+  public Set<String> getExistingActivities(String processId, Set<String> activities) {
+    if (ObjectUtils.isEmpty(activities)) {
+      return emptySet();
+    }
+    if (historyEventCapture.isEnabled()) {
+      return historyEventCapture.getExistingActivities(processId, activities);
+    }
+    List<String> values = new ArrayList<>(activities);
+    String parameters = IntStream.range(0, values.size())
+        .mapToObj(index -> "#{activity" + index + "}")
+        .collect(joining(", "));
+    // one row per activity, however often executed. Grouped with an id instead of DISTINCT, as the engine caches
+    // the mapped rows by id.
+    var query = historyService.createNativeHistoricActivityInstanceQuery()
+        .sql("SELECT MIN(RES.ID_) AS ID_, RES.ACT_ID_, RES.PROC_DEF_ID_"
+            + " FROM " + managementService.getTableName(HistoricActivityInstance.class) + " RES"
+            + " WHERE RES.PROC_INST_ID_ = #{processId}"
+            + " AND (RES.ACT_ID_ IN (" + parameters + ") OR RES.ACT_NAME_ IN (" + parameters + "))"
+            + " GROUP BY RES.ACT_ID_, RES.PROC_DEF_ID_")
+        .parameter("processId", processId);
+    IntStream.range(0, values.size()).forEach(index -> query.parameter("activity" + index, values.get(index)));
+    Set<String> existingActivities = new HashSet<>();
+    for (HistoricActivityInstance executedActivity : query.list()) {
+      // ids unknown to the model exist in the history only (e.g. the multi-instance body 'task#multiInstanceBody')
+      ProcessModelIndex modelIndex = getProcessModelIndex(executedActivity.getProcessDefinitionId());
+      activities.stream()
+          .filter(activity -> activity.equals(executedActivity.getActivityId())
+              || modelIndex.getActivityIds(activity).contains(executedActivity.getActivityId()))
+          .forEach(existingActivities::add);
+    }
+    return existingActivities;
   }
 
   public List<HistoricActivityInstance> getActivitiesByType(String processId, String activityType) {
-    return getActivityTasks(processId).stream()
-        .filter(activity -> activityType.equals(activity.getActivityType()))
-        .collect(toList());
+    if (historyEventCapture.isEnabled()) {
+      return getCapturedActivities(processId, activity -> activityType.equals(activity.getActivityType()));
+    }
+    return historicActivityInstanceQuery(processId)
+        .activityType(activityType)
+        .orderByHistoricActivityInstanceStartTime().asc()
+        .list();
   }
 
   public List<HistoricActivityInstance> getSubProcesses(String processId) {
@@ -496,9 +1247,12 @@ public class WorkflowTestHelper {
   }
 
   public HistoricActivityInstanceQuery historicActivityInstanceQuery(String processId) {
-    return historyService
+    requireHistoryTables("history activity query");
+    var query = historyService
         .createHistoricActivityInstanceQuery()
         .processInstanceId(processId);
+    scenarioTenant.ifScoped(query::tenantIdIn);
+    return query;
   }
 
   // -- Comments